@@ -47,7 +47,8 @@ module ArJdbc
         return exception if exception.is_a?(Throwable)
 
         # We create this exception in Java where we do not have access to the pool
-        exception.instance_variable_set(:@connection_pool, @pool) if exception.kind_of?(::ActiveRecord::JDBCError)
+        # (also errors mapped by SQLState/error code e.g. RecordNotUnique are raised from Java)
+        exception.instance_variable_set(:@connection_pool, @pool) if exception.kind_of?(::ActiveRecord::StatementInvalid)
 
         case exception
           when SystemExit, SignalException, NoMemoryError then exception
@@ -10,23 +10,14 @@ module ArJdbc
       NO_BINDS = [].freeze
 
       def exec_insert(sql, name = nil, binds = NO_BINDS, pk = nil, sequence_name = nil, returning: nil)
-        if preventing_writes?
-          raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: #{sql}"
-        end
-
-        mark_transaction_written_if_write(sql)
-
-        binds = convert_legacy_binds_to_attributes(binds) if binds.first.is_a?(Array)
+        internal_exec_insert(:execute_insert_pk, sql, name, binds, pk)
+      end
 
-        with_raw_connection do |conn|
-          if without_prepared_statement?(binds)
-            log(sql, name) { conn.execute_insert_pk(sql, pk) }
-          else
-            log(sql, name, binds) do
-              conn.execute_insert_pk(sql, binds, pk)
-            end
-          end
-        end
+      # Same as #exec_insert but returns the generated key(s) directly (without a result),
+      # an Integer for a single key or an Array when more than one row got inserted.
+      # @return [Integer, Array, NilClass]
+      def exec_insert_id(sql, name = nil, binds = NO_BINDS, pk = nil)
+        internal_exec_insert(:execute_insert_id, sql, name, binds, pk)
       end
 
       # It appears that at this point (AR 5.0) "prepare" should only ever be true
@@ -72,6 +63,17 @@ module ArJdbc
       end
       alias :exec_delete :exec_update
 
+      # Queries executed within the block time out (and get cancelled) after
+      # the given number of seconds, e.g.
+      #
+      #   connection.with_query_timeout(5) { Report.where(...).to_a }
+      #
+      # @note queries also get cancelled when the thread gets interrupted
+      # e.g. due `Timeout.timeout` or `Thread#kill`
+      def with_query_timeout(seconds, &block)
+        raw_connection.with_query_timeout(seconds, &block)
+      end
+
       # overridden to support legacy binds
       def select_all(arel, name = nil, binds = NO_BINDS, preparable: nil, async: false, allow_retry: false)
         binds = convert_legacy_binds_to_attributes(binds) if binds.first.is_a?(Array)
@@ -80,6 +82,27 @@ module ArJdbc
 
       private
 
+      # @param method the (raw) connection's insert method e.g. `:execute_insert_pk`
+      def internal_exec_insert(method, sql, name, binds, pk)
+        if preventing_writes?
+          raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: #{sql}"
+        end
+
+        mark_transaction_written_if_write(sql)
+
+        binds = convert_legacy_binds_to_attributes(binds) if binds.first.is_a?(Array)
+
+        with_raw_connection do |conn|
+          if without_prepared_statement?(binds)
+            log(sql, name) { conn.public_send(method, sql, pk) }
+          else
+            log(sql, name, binds) do
+              conn.public_send(method, sql, binds, pk)
+            end
+          end
+        end
+      end
+
       def without_prepared_statement?(binds)
         !prepared_statements || binds.empty?
       end
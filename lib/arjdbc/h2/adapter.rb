@@ -149,7 +149,12 @@ module ArJdbc
 
     # @override
     def columns(table_name, name = nil)
-      @connection.columns_internal(table_name.to_s, nil, h2_schema)
+      from_schema_snapshot(table_name, 'columns') { @connection.columns_internal(table_name.to_s, nil, h2_schema) }
+    end
+
+    # @override
+    def schema_snapshot(table_names = tables)
+      @connection.schema_snapshot(table_names.map(&:to_s), nil, h2_schema)
     end
 
     # @override
@@ -212,6 +217,23 @@ module ArJdbc
       execute 'SHUTDOWN COMPACT'
     end
 
+    # Copies the (template) database into a new in-process one, useful for isolating tests e.g.
+    #
+    #   ActiveRecord::Base.establish_connection(connection.clone_database('mem:test_1'))
+    #
+    # @return [Hash] configuration to connect to the copy with (embedded)
+    # @see #drop_database_clone
+    def clone_database(database)
+      url = "jdbc:h2:#{database}"
+      @connection.clone_database(url)
+      @config.merge(database: database, url: url, embedded: true)
+    end
+
+    # Releases a copy made with #clone_database (in-memory data is gone once disconnected).
+    def drop_database_clone(database)
+      ::ActiveRecord::ConnectionAdapters::JdbcConnection.shutdown_embedded("jdbc:h2:#{database}")
+    end
+
     # @private
     def recreate_database(name = nil, options = {})
       drop_database(name)
@@ -1,4 +1,6 @@
 ArJdbc::ConnectionMethods.module_eval do
+  # NOTE: with `embedded: true` the (in-process) engine is kept open for the JVM's life-time,
+  # see `JdbcConnection.shutdown_embedded(url)`
   def h2_connection(config)
     config[:adapter_spec] ||= ::ArJdbc::H2
     config[:adapter_class] = ActiveRecord::ConnectionAdapters::H2Adapter unless config.key?(:adapter_class)
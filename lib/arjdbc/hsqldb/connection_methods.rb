@@ -1,4 +1,6 @@
 ArJdbc::ConnectionMethods.module_eval do
+  # NOTE: with `embedded: true` the (in-process) engine is kept open for the JVM's life-time,
+  # see `JdbcConnection.shutdown_embedded(url)`
   def hsqldb_connection(config)
     config[:adapter_spec] ||= ::ArJdbc::HSQLDB
     config[:adapter_class] = ActiveRecord::ConnectionAdapters::HsqldbAdapter unless config.key?(:adapter_class)
@@ -223,7 +223,7 @@ module ActiveRecord
       end
 
       def columns(table_name, name = nil)
-        @connection.columns(table_name.to_s)
+        from_schema_snapshot(table_name, 'columns') { @connection.columns(table_name.to_s) }
       end
 
       # @override
@@ -293,6 +293,17 @@ module ActiveRecord
         end
       end
 
+      # Single row inserts get the generated key back directly (as an Integer)
+      # without building a result to pick the id from.
+      # @override
+      # @see #exec_insert_id
+      def insert(arel, name = nil, pk = nil, id_value = nil, sequence_name = nil, binds = [], returning: nil)
+        sql, binds = to_sql_and_binds(arel, binds)
+        value = exec_insert_id(sql, name, binds, pk)
+        return returning_column_values(value) unless returning.nil?
+        id_value || last_inserted_id(value)
+      end
+
       # @override
       def tables(name = nil)
         @connection.tables
@@ -316,7 +327,8 @@ module ActiveRecord
 
       # @override
       def indexes(table_name, name = nil, schema_name = nil)
-        @connection.indexes(table_name, name, schema_name)
+        return @connection.indexes(table_name, name, schema_name) if schema_name
+        from_schema_snapshot(table_name, 'indexes') { @connection.indexes(table_name, name, schema_name) }
       end
 
       # @override
@@ -326,12 +338,38 @@ module ActiveRecord
 
       # @override
       def primary_keys(table)
-        @connection.primary_keys(table)
+        from_schema_snapshot(table, 'primary_keys') { @connection.primary_keys(table) }
       end
 
       # @override
       def foreign_keys(table_name)
-        @connection.foreign_keys(table_name)
+        from_schema_snapshot(table_name, 'foreign_keys') { @connection.foreign_keys(table_name) }
+      end
+
+      # Introspects (many) tables at once, columns, primary keys, indexes and
+      # foreign keys are fetched with a single meta-data query each (where the
+      # driver allows) while all lookups share a connection check-out.
+      #
+      #   snapshot = connection.schema_snapshot
+      #   snapshot['users'] # { 'columns' => [...], 'primary_keys' => [...], 'indexes' => [...], 'foreign_keys' => [...] }
+      #
+      # @param table_names defaults to all tables
+      # @return [Hash] table name => columns, primary keys, indexes and foreign keys
+      def schema_snapshot(table_names = tables)
+        @connection.schema_snapshot(table_names.map(&:to_s))
+      end
+
+      # Populates the schema cache (e.g. on boot) from a {#schema_snapshot}
+      # instead of introspecting tables one at a time.
+      # @note Expected to be called on the connection leased by the current thread.
+      # @param table_names defaults to all tables
+      # @return [Integer] the number of tables cached
+      def warm_schema_cache(table_names = tables)
+        @schema_snapshot = schema_snapshot(table_names)
+        @schema_snapshot.each_key { |table_name| schema_cache.add(table_name) }
+        @schema_snapshot.size
+      ensure
+        @schema_snapshot = nil
       end
 
       # Does our database (+ its JDBC driver) support foreign-keys?
@@ -429,6 +467,13 @@ module ActiveRecord
 
       private
 
+      # Serves introspection from the snapshot while warming the schema cache.
+      # @see #warm_schema_cache
+      def from_schema_snapshot(table_name, key)
+        table = ( @schema_snapshot ||= nil ) && @schema_snapshot[table_name.to_s]
+        table ? table[key] : yield
+      end
+
       # Helper useful during {#quote} since AREL might pass in it's literals
       # to be quoted, fixed since AREL 4.0.0.beta1 : https://github.com/rails/arel/commit/9c514f3
       def sql_literal?(value); ::Arel::Nodes::SqlLiteral === value; end
@@ -162,6 +162,38 @@ module ActiveRecord
         exception.error_code if exception.is_a?(JDBCError)
       end
 
+      # Bulk loads data using LOAD DATA LOCAL INFILE, streamed from an IO (already
+      # formatted data) or an Enumerable of rows (arrays of values), rows are only
+      # pulled as the driver sends them.
+      # NOTE: needs local loads allowed e.g. `properties: { allowLoadLocalInfile: true }`
+      # @return number of loaded rows
+      def load_data_local_infile(table_name, source, columns: nil, on_duplicate: nil,
+                                 fields_terminated_by: "\t", lines_terminated_by: "\n")
+        if preventing_writes?
+          raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: LOAD DATA"
+        end
+
+        sql = +"LOAD DATA LOCAL INFILE 'stream' "
+        case on_duplicate
+        when :replace then sql << "REPLACE "
+        when :ignore then sql << "IGNORE "
+        when nil
+        else raise ArgumentError, "on_duplicate: expected :replace or :ignore, got #{on_duplicate.inspect}"
+        end
+        sql << "INTO TABLE #{quote_table_name(table_name)} "
+        sql << "FIELDS TERMINATED BY #{quote(fields_terminated_by)} ESCAPED BY '\\\\' "
+        sql << "LINES TERMINATED BY #{quote(lines_terminated_by)}"
+        sql << " (#{columns.map { |column| quote_column_name(column) }.join(', ')})" if columns
+
+        mark_transaction_written_if_write(sql)
+
+        with_raw_connection do |conn|
+          log(sql, 'LOAD DATA') do
+            conn.load_data_local_infile(sql, source, fields_terminated_by, lines_terminated_by, method(:type_cast))
+          end
+        end
+      end
+
       #--
       # QUOTING ==================================================
       #+
@@ -199,11 +199,13 @@ module ArJdbc
       end
       execute "RENAME #{quote_table_name(name)} TO #{quote_table_name(new_name)}"
       execute "RENAME #{quote_table_name("#{name}_seq")} TO #{quote_table_name("#{new_name}_seq")}" rescue nil
+      clear_describe_cache(name); clear_describe_cache(new_name)
     end
 
     # @override
     def drop_table(name, options = {})
       outcome = super(name)
+      clear_describe_cache(name)
       return outcome if name == 'schema_migrations'
       seq_name = options.key?(:sequence_name) ? # pass nil/false - no sequence
         options[:sequence_name] : default_sequence_name(name)
@@ -237,7 +239,9 @@ module ArJdbc
     end
 
     def indexes(table, name = nil)
-      @connection.indexes(table, name, @connection.connection.meta_data.user_name)
+      from_schema_snapshot(table, 'indexes') do
+        @connection.indexes(table, name, @connection.connection.meta_data.user_name)
+      end
     end
 
     # @note Only used with (non-AREL) ActiveRecord **2.3**.
@@ -431,7 +435,12 @@ module ArJdbc
 
     # NOTE: better to use current_schema instead of the configured one ?!
     def columns(table_name, name = nil)
-      @connection.columns_internal(table_name.to_s, nil, oracle_schema)
+      from_schema_snapshot(table_name, 'columns') { @connection.columns_internal(table_name.to_s, nil, oracle_schema) }
+    end
+
+    # @override
+    def schema_snapshot(table_names = tables)
+      @connection.schema_snapshot(table_names.map(&:to_s), nil, oracle_schema)
     end
 
     def tablespace(table_name)
@@ -604,6 +613,18 @@ module ArJdbc
     # @private
     def clear_prefetch_primary_key; @@do_not_prefetch_primary_key = {} end
 
+    # Invalidates (cached) describe results for the given table or all tables,
+    # results are cached (for all connections) up to `arjdbc.oracle.describe_cache_ttl` seconds.
+    def clear_describe_cache(table_name = nil)
+      @connection.clear_describe_cache(table_name && table_name.to_s)
+    end
+
+    # @override
+    def clear_cache!(*)
+      super
+      clear_describe_cache
+    end
+
     # @private
     def has_primary_key?(table_name, owner = nil, desc_table_name = nil, db_link = nil)
       ! pk_and_sequence_for(table_name, owner, desc_table_name, db_link).nil?
@@ -640,6 +661,69 @@ module ArJdbc
       log(sql, 'SQL') { @connection.next_sequence_value(sequence_name) }
     end
 
+    # Returns the given number of values from a sequence generator (in a single query).
+    def next_sequence_values(sequence_name, count)
+      sequence_name = quote_table_name(sequence_name)
+      sql = "SELECT #{sequence_name}.NEXTVAL id FROM dual CONNECT BY LEVEL <= #{count.to_i}"
+      with_raw_connection do |conn|
+        log(sql, 'SQL') { conn.next_sequence_values(sequence_name, count) }
+      end
+    end
+
+    # Inserts many rows (arrays of values in columns order) using a single batched INSERT,
+    # primary key values are pre-fetched from the sequence in one round-trip.
+    # Values are type-casted (serialized) the same way as attributes of a model.
+    # @return [Array<Integer>] the assigned primary key values (in rows order)
+    def bulk_insert(table_name, columns, rows, pk = nil, sequence_name = nil)
+      rows = rows.to_a
+      return [] if rows.empty?
+
+      pk ||= primary_key(table_name)
+      column_names = [ pk, *columns ].map { |column| quote_column_name(column) }
+      sql = "INSERT INTO #{quote_table_name(table_name)} (#{column_names.join(', ')})" <<
+            " VALUES (#{(['?'] * column_names.size).join(', ')})"
+
+      if preventing_writes?
+        raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: #{sql}"
+      end
+
+      columns_hash = schema_cache.columns_hash(table_name)
+      types = columns.map do |column|
+        column = columns_hash[column.to_s]
+        column ? lookup_cast_type_from_column(column) : ActiveModel::Type::Value.new
+      end
+
+      sequence_name ||= default_sequence_name(table_name, pk)
+      ids = next_sequence_values(sequence_name, rows.size)
+      binds_list = rows.each_with_index.map do |row, i|
+        binds = row.each_with_index.map do |value, j|
+          ActiveRecord::Relation::QueryAttribute.new(columns[j].to_s, value, types[j])
+        end
+        binds.unshift(ids[i])
+      end
+
+      mark_transaction_written_if_write(sql)
+
+      with_raw_connection do |conn|
+        log(sql, 'Bulk Insert') { conn.execute_prepared_batch(sql, binds_list) }
+      end
+      ids
+    end
+
+    # Executes a DML statement ending with `RETURNING column INTO ?` returning
+    # the column values of all affected rows (e.g. for a multi-row UPDATE).
+    def exec_returning(sql, name = nil, binds = [])
+      if preventing_writes?
+        raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: #{sql}"
+      end
+
+      mark_transaction_written_if_write(sql)
+
+      with_raw_connection do |conn|
+        log(sql, name, binds) { conn.execute_returning(sql, binds) }
+      end
+    end
+
     def pk_and_sequence_for(table_name, owner = nil, desc_table_name = nil, db_link = nil)
       (owner, desc_table_name, db_link) = @connection.describe(table_name, default_owner) unless desc_table_name
 
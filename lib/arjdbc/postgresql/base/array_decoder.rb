@@ -6,21 +6,13 @@ module ActiveRecord::ConnectionAdapters::PostgreSQL::OID
     module PG
       module TextDecoder
         class Array
-          # Loads pg_array_parser if available. String parsing can be
-          # performed quicker by a native extension, which will not create
-          # a large amount of Ruby objects that will need to be garbage
-          # collected. pg_array_parser has a C and Java extension
-          begin
-            require 'pg_array_parser'
-            include PgArrayParser
-          rescue LoadError
-            require_relative 'array_parser'
-            include ActiveRecord::ConnectionAdapters::PostgreSQL::ArrayParser
-          end
-
+          # String parsing is performed (over the raw bytes) in Java, it works
+          # the same as the (Ruby) ArrayParser#parse_pg_array in array_parser.rb
           def initialize(name:, delimiter:); end
 
-          alias_method :decode, :parse_pg_array
+          def decode(string)
+            ::ArJdbc::PostgreSQL.parse_pg_array(string)
+          end
         end
       end
     end
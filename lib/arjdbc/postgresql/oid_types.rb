@@ -104,6 +104,8 @@ module ArJdbc
           end
 
           initialize_type_map
+          # resolved types are cached (per connection) on the Java side
+          @raw_connection.clear_oid_type_cache if @raw_connection.respond_to?(:clear_oid_type_cache)
         end
       end
 
@@ -235,6 +235,36 @@ module ArJdbc
       end
     end
 
+    # Executes the same (prepared) statement for each of the binds arrays in a single batch,
+    # within one transaction unless there's already one open.
+    # @return [Array<Integer>] affected row counts
+    def execute_prepared_batch(sql, binds_list, name = nil)
+      if preventing_writes? && write_query?(sql)
+        raise ActiveRecord::ReadOnlyError, "Write query attempted while in readonly mode: #{sql}"
+      end
+
+      mark_transaction_written_if_write(sql)
+
+      with_raw_connection do |conn|
+        log(sql, name) { conn.execute_prepared_batch(sql, binds_list) }
+      end
+    end
+
+    # Copies the database (including an in-memory one) into a file using the online backup API.
+    def backup_database(path)
+      with_raw_connection { |conn| conn.backup(path.to_s) }
+    end
+
+    # Replaces the database contents with a backup made using #backup_database,
+    # a seeded (in-memory) database can be reset between tests this way.
+    def restore_database(path)
+      with_raw_connection { |conn| conn.restore(path.to_s) }
+    ensure
+      # cached statements and schema information is stale (the type map is static, not read from the database)
+      clear_cache!
+      schema_cache.clear!
+    end
+
     def disable_referential_integrity # :nodoc:
       old_foreign_keys = query_value("PRAGMA foreign_keys")
       old_defer_foreign_keys = query_value("PRAGMA defer_foreign_keys")
@@ -836,6 +866,22 @@ module ArJdbc
           warn "Unknown SQLite pragma: #{pragma}"
         end
       end
+
+      configure_read_pool(DEFAULT_PRAGMAS.merge(pragmas))
+    end
+
+    # Opt-in (`read_pool: 4`) read-only connections, SELECTs outside of transactions
+    # get executed on these (shared per database) while writes stay on the connection.
+    # Only useful with WAL journaling, where readers and the writer do not block each other.
+    def configure_read_pool(pragmas)
+      read_pool = self.class.type_cast_config_to_integer(@config[:read_pool]).to_i
+      return if read_pool <= 0 || @memory_database
+
+      # journal mode is persistent (set by the writer), readers can not change it anyway
+      reader_pragmas = pragmas.except("journal_mode").filter_map do |pragma, value|
+        ::SQLite3::Pragmas.public_send(pragma, value) if ::SQLite3::Pragmas.respond_to?(pragma)
+      end
+      raw_connection.setup_read_pool(read_pool, reader_pragmas)
     end
   end
   # DIFFERENCE: A registration here is moved down to concrete class so we are not registering part of an adapter.
@@ -26,6 +26,7 @@
 package arjdbc.db2;
 
 import arjdbc.jdbc.Callable;
+import arjdbc.jdbc.ConnectionSettings;
 import arjdbc.jdbc.RubyJdbcConnection;
 import arjdbc.util.StringHelper;
 
@@ -35,6 +36,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import org.jruby.Ruby;
+import org.jruby.RubyArray;
 import org.jruby.RubyBoolean;
 import org.jruby.RubyClass;
 import org.jruby.RubyString;
@@ -43,6 +45,7 @@ import org.jruby.runtime.ObjectAllocator;
 import org.jruby.runtime.ThreadContext;
 import org.jruby.runtime.builtin.IRubyObject;
 import org.jruby.util.ByteList;
+import org.jruby.util.SafePropertyAccessor;
 
 /**
  *
@@ -102,6 +105,115 @@ public class DB2RubyJdbcConnection extends RubyJdbcConnection {
         return true;
     }
 
+    /**
+     * Whether INSERTs returning a primary key are executed as <code>SELECT pk FROM FINAL TABLE (INSERT ...)</code>,
+     * retrieving generated identities (for all inserted rows) in the same round-trip.
+     * Disabled by default, enable using <code>-Darjdbc.db2.final_table_insert=true</code>.
+     */
+    private static final boolean FINAL_TABLE_INSERT = SafePropertyAccessor.getBoolean("arjdbc.db2.final_table_insert", false);
+
+    /**
+     * Default (multi-row) fetch size for queries, unless configured using <code>jdbc_fetch_size</code>.
+     */
+    private static final int DEFAULT_FETCH_SIZE = SafePropertyAccessor.getInt("arjdbc.db2.fetch_size", 0);
+
+    @Override
+    protected ConnectionSettings newSettings(final ThreadContext context) {
+        final ConnectionSettings settings = super.newSettings(context);
+        if ( DEFAULT_FETCH_SIZE > 0 && getConfigValue(context, "jdbc_fetch_size").isNil() ) {
+            return settings.withFetchSize(DEFAULT_FETCH_SIZE);
+        }
+        return settings;
+    }
+
+    @Override
+    @JRubyMethod(name = "execute_insert_pk", required = 2)
+    public IRubyObject execute_insert_pk(final ThreadContext context, final IRubyObject sql, final IRubyObject pk) {
+        if ( ! isFinalTableInsert(context, sql, pk) ) return super.execute_insert_pk(context, sql, pk);
+        return executeFinalTableInsert(context, sql, null, pk, false);
+    }
+
+    @Override
+    @JRubyMethod(name = "execute_insert_pk", required = 3)
+    public IRubyObject execute_insert_pk(final ThreadContext context, final IRubyObject sql, final IRubyObject binds,
+                                         final IRubyObject pk) {
+        if ( ! isFinalTableInsert(context, sql, pk) ) return super.execute_insert_pk(context, sql, binds, pk);
+        return executeFinalTableInsert(context, sql, (RubyArray) binds, pk, false);
+    }
+
+    @Override
+    @JRubyMethod(name = "execute_insert_id", required = 2)
+    public IRubyObject execute_insert_id(final ThreadContext context, final IRubyObject sql, final IRubyObject pk) {
+        if ( ! isFinalTableInsert(context, sql, pk) ) return super.execute_insert_id(context, sql, pk);
+        return executeFinalTableInsert(context, sql, null, pk, true);
+    }
+
+    @Override
+    @JRubyMethod(name = "execute_insert_id", required = 3)
+    public IRubyObject execute_insert_id(final ThreadContext context, final IRubyObject sql, final IRubyObject binds,
+                                         final IRubyObject pk) {
+        if ( ! isFinalTableInsert(context, sql, pk) ) return super.execute_insert_id(context, sql, binds, pk);
+        return executeFinalTableInsert(context, sql, (RubyArray) binds, pk, true);
+    }
+
+    private static final byte[] INSERT = new byte[] { 'i','n','s','e','r','t' };
+
+    private static boolean isFinalTableInsert(final ThreadContext context, final IRubyObject sql, final IRubyObject pk) {
+        if ( ! FINAL_TABLE_INSERT || pk == context.nil || pk == context.fals ) return false;
+        return StringHelper.startsWithIgnoreCase(sql.asString().getByteList(), INSERT);
+    }
+
+    private IRubyObject executeFinalTableInsert(final ThreadContext context,
+        final IRubyObject sql, final RubyArray binds, final IRubyObject pk, final boolean keysOnly) {
+        final StringBuilder query = new StringBuilder(64).append("SELECT ");
+        final String[] pkColumns = createStatementPk(pk);
+        for ( int i = 0; i < pkColumns.length; i++ ) {
+            if ( i > 0 ) query.append(", ");
+            query.append( quoteColumnName(pkColumns[i]) );
+        }
+        query.append(" FROM FINAL TABLE (").append( sqlString(sql) ).append(')');
+
+        markWrite(null);
+        return withConnection(context, connection -> {
+            final String finalTableQuery = query.toString();
+            PreparedStatement statement = null; ResultSet resultSet = null;
+            try {
+                statement = connection.prepareStatement(finalTableQuery);
+                if ( binds != null ) setStatementParameters(context, connection, statement, binds);
+                resultSet = statement.executeQuery();
+                return keysOnly ? doMapGeneratedKeys(context, resultSet, null) :
+                    mapQueryResult(context, connection, resultSet);
+            }
+            catch (final SQLException e) {
+                debugErrorSQL(context, finalTableQuery);
+                throw e;
+            }
+            finally { close(resultSet); close(statement); }
+        });
+    }
+
+    /**
+     * Regular identifiers are left as is (DB2 folds them to upper-case just like the column name it stores
+     * for an unquoted one), others (e.g. containing spaces) are delimited using double quotes.
+     */
+    private static String quoteColumnName(final String name) {
+        if ( isRegularIdentifier(name) ) return name;
+        return '"' + name.replace("\"", "\"\"") + '"';
+    }
+
+    private static boolean isRegularIdentifier(final String name) {
+        if ( name.isEmpty() || ! isAsciiLetter(name.charAt(0)) ) return false;
+        for ( int i = 1; i < name.length(); i++ ) {
+            final char c = name.charAt(i);
+            if ( ! isAsciiLetter(c) && ! ( c >= '0' && c <= '9' ) && c != '_' ) return false;
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(final char c) {
+        return ( c >= 'a' && c <= 'z' ) || ( c >= 'A' && c <= 'Z' );
+    }
+
     @JRubyMethod(name = {"identity_val_local", "last_insert_id"})
     public IRubyObject identity_val_local(final ThreadContext context)
         throws SQLException {
@@ -26,11 +26,19 @@
 package arjdbc.h2;
 
 import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
 
 import arjdbc.db2.DB2RubyJdbcConnection;
+import arjdbc.jdbc.EmbeddedConnectionFactory;
 import org.jruby.Ruby;
 import org.jruby.RubyClass;
+import org.jruby.anno.JRubyMethod;
 import org.jruby.runtime.ObjectAllocator;
 import org.jruby.runtime.ThreadContext;
 import org.jruby.runtime.builtin.IRubyObject;
@@ -64,6 +72,55 @@ public class H2RubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection {
         }
     };
 
+    /**
+     * Creates a copy (schema and data) of the current database at the given URL, usually an in-memory
+     * one e.g. <code>jdbc:h2:mem:test_1</code> for a test to run in isolation against a (template) copy.
+     * The copy stays open (in-process) and can be connected to with <code>embedded: true</code>.
+     * @param context
+     * @param url the JDBC URL for the copy
+     * @return number of executed (script) statements
+     * @see EmbeddedConnectionFactory#shutdown(String)
+     */
+    @JRubyMethod(name = "clone_database", required = 1)
+    public IRubyObject clone_database(final ThreadContext context, final IRubyObject url) {
+        final String targetURL = url.toString();
+        // a re-tried script would run against a partially created copy, can not be re-tried
+        return withConnectionNoRetry(context, connection -> {
+            final List<String> script = new ArrayList<>(64);
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("SCRIPT")) {
+                while ( result.next() ) script.add(result.getString(1));
+            }
+
+            final Connection target = newTargetConnection(context, connection, targetURL);
+            try (Statement statement = target.createStatement()) {
+                for ( String sql : script ) statement.execute(sql);
+            }
+            catch (SQLException|RuntimeException e) {
+                try { target.close(); } catch (SQLException ignore) { /* ignored */ }
+                throw e;
+            }
+            EmbeddedConnectionFactory.register(targetURL, target);
+            return context.runtime.newFixnum(script.size());
+        });
+    }
+
+    private Connection newTargetConnection(final ThreadContext context, final Connection connection, final String url)
+        throws SQLException {
+        final Properties properties = new Properties();
+        final IRubyObject username = getConfigValue(context, "username");
+        final IRubyObject password = getConfigValue(context, "password");
+        if ( ! username.isNil() ) properties.setProperty("user", username.toString());
+        if ( ! password.isNil() ) properties.setProperty("password", password.toString());
+        try {
+            final Class<?> driverClass = Class.forName("org.h2.Driver", true, connection.getClass().getClassLoader());
+            return ((Driver) driverClass.getDeclaredConstructor().newInstance()).connect(url, properties);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new SQLException("could not load H2 driver: " + e, e);
+        }
+    }
+
     /**
      * H2 supports schemas.
      */
@@ -0,0 +1,101 @@
+package arjdbc.jdbc;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guards opening new (physical) connections, shared by all connections using the same factory.
+ *
+ * After <code>circuit_breaker_threshold</code> consecutive connect failures the breaker opens and
+ * connect attempts fail fast for a (jittered, exponentially growing) back-off period, thus a database
+ * fail-over does not turn into a storm of connect attempts from every pooled connection.
+ * Once the period passes a single connection is let through to probe the database, success closes
+ * the breaker while failure opens it again (for a longer period).
+ *
+ * @see ConnectionFactoryRegistry.Entry
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int threshold;
+    private final long backoffNanos, maxBackoffNanos;
+
+    private State state = State.CLOSED;
+    private int failures; // consecutive
+    private int backoffExponent;
+    private long openUntil, openedAt; // System.nanoTime()
+    private Throwable lastFailure;
+    // stats :
+    private long trips, rejected, recoveries, lastRecoveryNanos;
+
+    CircuitBreaker(final int threshold, final long backoffNanos, final long maxBackoffNanos) {
+        this.threshold = Math.max(1, threshold);
+        this.backoffNanos = Math.max(1, backoffNanos);
+        this.maxBackoffNanos = Math.max(this.backoffNanos, maxBackoffNanos);
+    }
+
+    /**
+     * @throws SQLTransientConnectionException when open (or another connection is probing),
+     * caused by the last connect failure (which gets reported to the user)
+     */
+    synchronized void beforeConnect() throws SQLTransientConnectionException {
+        switch (state) {
+            case CLOSED: return;
+            case OPEN:
+                final long wait = openUntil - System.nanoTime();
+                if ( wait <= 0 ) { state = State.HALF_OPEN; return; } // we're the probe
+                rejected++;
+                throw new SQLTransientConnectionException("circuit breaker open, not connecting for another " +
+                    TimeUnit.NANOSECONDS.toMillis(wait) + "ms (after " + failures + " failed attempts)", "08001", lastFailure);
+            default: // HALF_OPEN
+                rejected++;
+                throw new SQLTransientConnectionException("circuit breaker half-open, probing connection in progress", "08001", lastFailure);
+        }
+    }
+
+    synchronized void connected() {
+        if ( state != State.CLOSED ) {
+            recoveries++;
+            lastRecoveryNanos = System.nanoTime() - openedAt;
+        }
+        state = State.CLOSED;
+        failures = 0; backoffExponent = 0; lastFailure = null;
+    }
+
+    synchronized void failed(final Throwable failure) {
+        failures++; lastFailure = failure;
+        if ( state == State.HALF_OPEN ) open(); // probe failed
+        else if ( state == State.CLOSED && failures >= threshold ) {
+            openedAt = System.nanoTime(); trips++;
+            open();
+        }
+    }
+
+    private void open() {
+        long backoff = backoffNanos; // doubles with each failed probe
+        for ( int i = 0; i < backoffExponent && backoff < maxBackoffNanos; i++ ) {
+            backoff = backoff > maxBackoffNanos / 2 ? maxBackoffNanos : backoff * 2;
+        }
+        if ( backoff < maxBackoffNanos ) backoffExponent++;
+        // jitter (between half and the full back-off) to spread probes of different processes
+        final long half = backoff / 2;
+        openUntil = System.nanoTime() + half + ThreadLocalRandom.current().nextLong(backoff - half + 1);
+        state = State.OPEN;
+    }
+
+    synchronized State getState() { return state; }
+
+    synchronized long getTrips() { return trips; }
+
+    synchronized long getRejected() { return rejected; }
+
+    synchronized long getRecoveries() { return recoveries; }
+
+    /**
+     * @return how long (nanos) it took to recover since the breaker last tripped (0 if never recovered)
+     */
+    synchronized long getLastRecoveryNanos() { return lastRecoveryNanos; }
+
+}
@@ -0,0 +1,144 @@
+package arjdbc.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.jruby.Ruby;
+
+/**
+ * Connection factories shared (per Ruby runtime) by all connections configured for the same
+ * database, thus setting up a factory (loading the driver, resolving properties, JNDI look-ups)
+ * happens once per database and not with every new connection (e.g. on each pool fill).
+ *
+ * Entries are reference counted, once no connection uses them anymore entries are kept around
+ * (e.g. for the pool to re-connect) but only up to {@link #MAX_UNUSED} of them, the ones unused
+ * for the longest time get evicted (rotated credentials or per-tenant URLs do not accumulate).
+ *
+ * @see RubyJdbcConnection#connectionFactoryKey
+ */
+final class ConnectionFactoryRegistry {
+
+    private static final Map<Ruby, ConnectionFactoryRegistry> REGISTRIES =
+        Collections.synchronizedMap(new WeakHashMap<>(4));
+
+    static final int MAX_UNUSED = Integer.getInteger("arjdbc.connection_factory.max_unused", 8);
+
+    static ConnectionFactoryRegistry forRuntime(final Ruby runtime) {
+        return REGISTRIES.computeIfAbsent(runtime, r -> new ConnectionFactoryRegistry());
+    }
+
+    static final class Entry {
+
+        final ConnectionFactory factory;
+        final boolean jndi;
+        final CircuitBreaker breaker; // null if disabled
+        final AtomicLong reused = new AtomicLong();
+        // connections using the entry, -1 once evicted
+        private final AtomicInteger references = new AtomicInteger();
+        private Object key; // set once registered
+        private volatile long releasedAt; // System.nanoTime() when last released
+
+        Entry(final ConnectionFactory factory, final boolean jndi, final CircuitBreaker breaker) {
+            this.factory = factory;
+            this.jndi = jndi;
+            this.breaker = breaker;
+        }
+
+        private boolean acquire() {
+            int refs;
+            do {
+                if ( ( refs = references.get() ) < 0 ) return false; // evicted
+            }
+            while ( ! references.compareAndSet(refs, refs + 1) );
+            return true;
+        }
+
+        private boolean release() {
+            if ( references.decrementAndGet() != 0 ) return false;
+            releasedAt = System.nanoTime(); return true;
+        }
+
+        private boolean isUnused() { return references.get() == 0; }
+
+        private boolean evict() { return references.compareAndSet(0, -1); }
+
+    }
+
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>(8);
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    /**
+     * Looks up (and acquires) an entry, the returned entry should be {@link #release(Entry)}-d
+     * once the connection is done using it.
+     *
+     * The setup is not run within the map (it might be slow, fail or call back into Ruby),
+     * when racing for the same key the first registered entry wins.
+     *
+     * @param key the normalized database configuration
+     * @param setup creates the factory on a miss
+     * @return the (shared) factory entry for the given configuration
+     */
+    Entry lookup(final Object key, final Supplier<Entry> setup) {
+        Entry entry = entries.get(key);
+        while ( true ) {
+            if ( entry == null ) {
+                final Entry newEntry = setup.get();
+                newEntry.key = key;
+                newEntry.acquire();
+                entry = entries.putIfAbsent(key, newEntry);
+                if ( entry == null ) {
+                    created.incrementAndGet(); return newEntry;
+                }
+            }
+            if ( entry.acquire() ) break;
+            entries.remove(key, entry); // evicted concurrently
+            entry = entries.get(key);
+        }
+        entry.reused.incrementAndGet();
+        reused.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Releases an entry acquired using {@link #lookup(Object, Supplier)}.
+     * @param entry the entry
+     */
+    void release(final Entry entry) {
+        if ( entry.release() ) evictUnused();
+    }
+
+    private void evictUnused() {
+        final List<Entry> unused = new ArrayList<>();
+        for ( final Entry entry : entries.values() ) {
+            if ( entry.isUnused() ) unused.add(entry);
+        }
+        if ( unused.size() <= MAX_UNUSED ) return;
+
+        unused.sort(Comparator.comparingLong(entry -> entry.releasedAt));
+        for ( int i = unused.size() - MAX_UNUSED - 1; i >= 0; i-- ) {
+            final Entry entry = unused.get(i);
+            if ( entry.evict() ) entries.remove(entry.key, entry); // unless re-acquired meanwhile
+        }
+    }
+
+    int size() { return entries.size(); }
+
+    long getCreated() { return created.get(); }
+
+    long getReused() { return reused.get(); }
+
+    void clear() {
+        entries.clear();
+        created.set(0); reused.set(0);
+    }
+
+}
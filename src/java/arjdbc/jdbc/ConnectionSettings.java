@@ -0,0 +1,107 @@
+package arjdbc.jdbc;
+
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+
+import static org.jruby.api.Convert.toInt;
+
+/**
+ * Settings used while executing statements, parsed once from the (Ruby) database configuration
+ * thus (hot-path) statement execution does not look up values in the config hash.
+ *
+ * Instances are immutable, changes to the configuration are picked up on an explicit refresh.
+ *
+ * @see RubyJdbcConnection#refresh_config(ThreadContext)
+ */
+public final class ConnectionSettings {
+
+    static final ConnectionSettings DEFAULT = new ConnectionSettings(null, 0, null, 0, 1, false);
+
+    private final Boolean escapeProcessing; // null - not configured
+    private final int fetchSize; // 0 = JDBC default
+    private final String aliveSQL;
+    private final int aliveTimeout; // 0 - no timeout
+    private final int connectionRetries;
+    private final boolean lazyBegin;
+
+    private ConnectionSettings(final Boolean escapeProcessing, final int fetchSize,
+        final String aliveSQL, final int aliveTimeout, final int connectionRetries, final boolean lazyBegin) {
+        this.escapeProcessing = escapeProcessing;
+        this.fetchSize = fetchSize;
+        this.aliveSQL = aliveSQL;
+        this.aliveTimeout = aliveTimeout;
+        this.connectionRetries = connectionRetries;
+        this.lazyBegin = lazyBegin;
+    }
+
+    static ConnectionSettings parse(final ThreadContext context, final RubyJdbcConnection connection) {
+        final IRubyObject escapeProcessing = connection.getConfigValue(context, "statement_escape_processing");
+        final IRubyObject fetchSize = connection.getConfigValue(context, "jdbc_fetch_size");
+        final IRubyObject aliveSQL = connection.getConfigValue(context, "connection_alive_sql");
+        final IRubyObject aliveTimeout = connection.getConfigValue(context, "connection_alive_timeout");
+        final IRubyObject retries = connection.getConfigValue(context, "connection_retries");
+        final IRubyObject lazyBegin = connection.getConfigValue(context, "lazy_begin");
+
+        return new ConnectionSettings(
+            escapeProcessing.isNil() ? null : escapeProcessing.isTrue(),
+            fetchSize.isNil() ? 0 : toInt(context, fetchSize),
+            aliveSQL.isNil() ? null : aliveSQL.asString().toString(),
+            aliveTimeout.isNil() ? 0 : toInt(context, aliveTimeout),
+            retries.isNil() ? 1 : Math.max(0, toInt(context, retries)),
+            lazyBegin.isTrue()
+        );
+    }
+
+    /**
+     * @return <code>statement_escape_processing</code> (null if not configured)
+     */
+    public Boolean getEscapeProcessing() {
+        return escapeProcessing;
+    }
+
+    /**
+     * @return <code>jdbc_fetch_size</code> for query statements (0 for the driver's default)
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * @param fetchSize the fetch size to use
+     * @return a copy of these settings with the given fetch size
+     */
+    public ConnectionSettings withFetchSize(final int fetchSize) {
+        return new ConnectionSettings(escapeProcessing, fetchSize, aliveSQL, aliveTimeout, connectionRetries, lazyBegin);
+    }
+
+    /**
+     * @return <code>connection_alive_sql</code> (null if not configured)
+     */
+    public String getAliveSQL() {
+        return aliveSQL;
+    }
+
+    /**
+     * @return <code>connection_alive_timeout</code> in seconds (0 for no timeout)
+     */
+    public int getAliveTimeout() {
+        return aliveTimeout;
+    }
+
+    /**
+     * @return <code>connection_retries</code> - how many times a failed (auto-commit) operation
+     * is retried on transient or recoverable (connection) failures (defaults to 1)
+     */
+    public int getConnectionRetries() {
+        return connectionRetries;
+    }
+
+    /**
+     * @return <code>lazy_begin</code> - whether starting a transaction is deferred until the first
+     * statement executes (defaults to false)
+     */
+    public boolean isLazyBegin() {
+        return lazyBegin;
+    }
+
+}
@@ -0,0 +1,80 @@
+package arjdbc.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Connection factory for in-process (embedded) databases such as H2 and HSQLDB.
+ *
+ * The engine is opened once per JVM (for a given URL) and kept open by an "anchor" session,
+ * thus connections are cheap in-process sessions. Otherwise the engine shuts down (or drops
+ * an in-memory database) whenever the last connection gets closed and needs to be re-opened
+ * (re-read from disk) with the next one.
+ *
+ * @see #shutdown(String)
+ */
+public final class EmbeddedConnectionFactory implements ConnectionFactory {
+
+    private static final ConcurrentHashMap<String, Connection> ENGINES = new ConcurrentHashMap<>(8);
+
+    private final DriverConnectionFactory factory;
+
+    EmbeddedConnectionFactory(final DriverConnectionFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Connection newConnection() throws SQLException {
+        final Connection anchor = ENGINES.get(factory.url);
+        if ( anchor == null || anchor.isClosed() ) startEngine();
+        return factory.newConnection();
+    }
+
+    DriverWrapper getDriverWrapper() {
+        return factory.getDriverWrapper();
+    }
+
+    private void startEngine() throws SQLException {
+        synchronized (ENGINES) {
+            final Connection anchor = ENGINES.get(factory.url);
+            if ( anchor != null && ! anchor.isClosed() ) return;
+            ENGINES.put(factory.url, factory.newConnection());
+        }
+    }
+
+    /**
+     * Keeps the engine for the given URL open using the passed session (e.g. after creating a database).
+     * @param url the JDBC URL
+     * @param anchor the session to keep open
+     */
+    public static void register(final String url, final Connection anchor) {
+        final Connection previous;
+        synchronized (ENGINES) { previous = ENGINES.put(url, anchor); }
+        if ( previous != null && previous != anchor ) close(previous);
+    }
+
+    /**
+     * Releases the engine (anchor session) for the given URL, in-memory databases are dropped
+     * once all other (embedded) connections get closed.
+     * @param url the JDBC URL
+     * @return whether an engine was open
+     */
+    public static boolean shutdown(final String url) {
+        final Connection anchor;
+        synchronized (ENGINES) { anchor = ENGINES.remove(url); }
+        if ( anchor == null ) return false;
+        close(anchor);
+        return true;
+    }
+
+    public static boolean isStarted(final String url) {
+        return ENGINES.containsKey(url);
+    }
+
+    private static void close(final Connection connection) {
+        try { connection.close(); }
+        catch (SQLException e) { /* ignore */ }
+    }
+
+}
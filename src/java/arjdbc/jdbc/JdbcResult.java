@@ -85,17 +85,38 @@ public class JdbcResult extends RubyObject {
      * @param context current thread context
      */
     protected void populateTuples(final ThreadContext context) {
-        int columnCount = columnNames.length;
         tuples = new RubyHash[values.size()];
 
         for (int i = 0; i < tuples.length; i++) {
-            RubyArray currentRow = (RubyArray) values.eltInternal(i);
-            RubyHash hash = newHash(context);
-            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
-                hash.fastASet(columnNames[columnIndex], currentRow.eltInternal(columnIndex));
-            }
-            tuples[i] = hash;
+            tuples[i] = tupleAt(context, i);
+        }
+    }
+
+    /**
+     * Builds a single hash of column names to column values for the given row.
+     * Unlike {@link #populateTuples(ThreadContext)} nothing is retained, callers
+     * iterating once over (large) results should prefer this.
+     * @param context current thread context
+     * @param rowIndex zero-based row index (expected to be in range)
+     * @return a new hash for the row
+     */
+    protected RubyHash tupleAt(final ThreadContext context, final int rowIndex) {
+        return newTuple(context, columnNames, (RubyArray) values.eltInternal(rowIndex));
+    }
+
+    /**
+     * @param context current thread context
+     * @param columnNames (frozen) column name keys
+     * @param row the row values
+     * @return a hash of column names to row values
+     */
+    protected static RubyHash newTuple(final ThreadContext context, final RubyString[] columnNames, final RubyArray row) {
+        final RubyHash hash = newHash(context);
+        // column names are frozen (cached) strings - no need to go through the op_aset key dup
+        for (int columnIndex = 0; columnIndex < columnNames.length; columnIndex++) {
+            hash.fastASet(columnNames[columnIndex], row.eltInternal(columnIndex));
         }
+        return hash;
     }
 
     /**
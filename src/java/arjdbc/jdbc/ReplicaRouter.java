@@ -0,0 +1,93 @@
+package arjdbc.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes (auto-commit) reads of a connection to a replica, configured using e.g. :
+ * <pre>
+ *   replicas: [ { url: 'jdbc:postgresql://replica1/app' }, { url: 'jdbc:postgresql://replica2/app' } ]
+ *   replica_stickiness: 2 # seconds reads keep going to the primary after a write
+ * </pre>
+ *
+ * Each (primary) connection lazily opens a single replica connection, replicas are picked
+ * round-robin so that connections get spread across all of them.
+ */
+final class ReplicaRouter {
+
+    private static final AtomicInteger NEXT = new AtomicInteger();
+
+    private final ConnectionFactory[] replicas;
+    private final long stickinessNanos;
+
+    private Connection connection; // replica connection (opened on first read)
+    private volatile long lastWrite; // System.nanoTime()
+    private volatile boolean written;
+    private long reads, fallbacks; // stats
+
+    ReplicaRouter(final ConnectionFactory[] replicas, final long stickinessNanos) {
+        this.replicas = replicas;
+        this.stickinessNanos = stickinessNanos;
+    }
+
+    /**
+     * @return whether reads should (still) go to the primary due a recent write
+     */
+    boolean isSticky() {
+        return written && System.nanoTime() - lastWrite < stickinessNanos;
+    }
+
+    void markWrite() {
+        lastWrite = System.nanoTime(); written = true; transactionWrite = true;
+    }
+
+    private boolean transactionWrite; // written since the transaction began, marked again on commit
+
+    void transactionStarted() {
+        transactionWrite = false;
+    }
+
+    /**
+     * Re-starts stickiness for a transaction with writes (that might have taken longer than the stickiness),
+     * replicas won't see the changes before they're committed.
+     */
+    void transactionCommitted() {
+        if ( transactionWrite ) markWrite();
+        transactionWrite = false;
+    }
+
+    void transactionRolledBack() {
+        transactionWrite = false;
+    }
+
+    Connection getConnection() throws SQLException {
+        if ( connection == null ) {
+            final int index = Math.floorMod(NEXT.getAndIncrement(), replicas.length);
+            connection = replicas[index].newConnection();
+            try { connection.setReadOnly(true); } // a hint for the driver
+            catch (SQLException e) { /* ignore */ }
+        }
+        reads++;
+        return connection;
+    }
+
+    /**
+     * Closes the replica connection (e.g. after it failed), the next read opens a new one.
+     * @param fallback whether the read is going to be re-tried using the primary
+     */
+    void discard(final boolean fallback) {
+        final Connection connection = this.connection;
+        this.connection = null;
+        if ( fallback ) fallbacks++;
+        if ( connection != null ) {
+            try { connection.close(); }
+            catch (SQLException e) { /* ignore */ }
+        }
+    }
+
+    long getReads() { return reads; }
+
+    long getFallbacks() { return fallbacks; }
+
+}
@@ -34,6 +34,9 @@ import java.io.StringReader;
 import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Array;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -46,21 +49,28 @@ import java.sql.Statement;
 import java.sql.Date;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
 import java.sql.SQLTransientException;
 import java.sql.Savepoint;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.TreeMap;
 import java.util.TimeZone;
 
 import arjdbc.util.StringHelper;
@@ -82,6 +92,7 @@ import org.jruby.RubyNumeric;
 import org.jruby.RubyObject;
 import org.jruby.RubyString;
 import org.jruby.RubySymbol;
+import org.jruby.RubyThread;
 import org.jruby.RubyTime;
 import org.jruby.anno.JRubyMethod;
 import org.jruby.exceptions.RaiseException;
@@ -113,6 +124,7 @@ import static org.jruby.RubyTime.getLocalTimeZone;
 import static org.jruby.api.Access.getModule;
 import static org.jruby.api.Access.objectClass;
 import static org.jruby.api.Convert.asFixnum;
+import static org.jruby.api.Convert.toDouble;
 import static org.jruby.api.Convert.toInt;
 import static org.jruby.api.Create.allocArray;
 import static org.jruby.api.Create.newArray;
@@ -131,6 +143,8 @@ public class RubyJdbcConnection extends RubyObject {
     private static final String[] TABLE_TYPES = new String[] { "TABLE", "VIEW", "SYNONYM" };
 
     private ConnectionFactory connectionFactory;
+    private CircuitBreaker circuitBreaker; // shared with connections using the same factory
+    private ConnectionFactoryRegistry.Entry connectionFactoryEntry; // released on disconnect
     private IRubyObject config;
     private IRubyObject adapter; // the AbstractAdapter instance we belong to
     private volatile boolean connected = true;
@@ -140,7 +154,7 @@ public class RubyJdbcConnection extends RubyObject {
     private boolean lazy = false; // final once set on initialize
     private boolean jndi; // final once set on initialize
     private boolean configureConnection = true; // final once initialized
-    private int fetchSize = 0; // 0 = JDBC default
+    private volatile ConnectionSettings settings = ConnectionSettings.DEFAULT;
 
     protected RubyJdbcConnection(Ruby runtime, RubyClass metaClass) {
         super(runtime, metaClass);
@@ -334,6 +348,9 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = {"begin", "transaction"}, required = 1) // optional isolation argument for AR-4.0
     public IRubyObject begin(final ThreadContext context, final IRubyObject isolation) {
+        if ( replicaRouter != null ) replicaRouter.transactionStarted();
+        // with an isolation level begin eagerly, thus an unsupported level fails on begin (not later)
+        if ( isolation == context.nil && settings.isLazyBegin() ) return deferBegin(context);
         try { // handleException == false so we can handle setTXIsolation
             return withConnection(context, false, connection -> beginTransaction(context, connection, isolation == context.nil ? null : isolation));
         } catch (SQLException e) {
@@ -343,6 +360,8 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = {"begin", "transaction"}) // optional isolation argument for AR-4.0
     public IRubyObject begin(final ThreadContext context) {
+        if ( replicaRouter != null ) replicaRouter.transactionStarted();
+        if ( settings.isLazyBegin() ) return deferBegin(context);
         try { // handleException == false so we can handle setTXIsolation
             return withConnection(context, false, connection -> beginTransaction(context, connection, null));
         } catch (SQLException e) {
@@ -350,12 +369,44 @@ public class RubyJdbcConnection extends RubyObject {
         }
     }
 
+    // lazy BEGIN: recorded on begin, applied (to the connection) before the first statement executes
+    private boolean beginPending;
+
+    private IRubyObject deferBegin(final ThreadContext context) {
+        beginPending = true;
+        return context.nil;
+    }
+
+    /**
+     * @return whether a (lazy) transaction begin has not yet been applied to the connection
+     */
+    protected final boolean isBeginPending() { return beginPending; }
+
+    /**
+     * Starts a transaction on the connection if one has been (lazily) requested.
+     * @param context
+     * @param connection the connection to start the transaction on
+     * @throws SQLException
+     */
+    protected final void applyPendingBegin(final ThreadContext context, final Connection connection) throws SQLException {
+        if ( ! beginPending ) return;
+        beginTransaction(context, connection, null);
+        // cleared once started, after a failed begin the rollback does not touch the (broken) connection
+        beginPending = false;
+    }
+
+    private boolean clearPendingBegin() {
+        if ( ! beginPending ) return false;
+        beginPending = false;
+        return true;
+    }
+
     protected IRubyObject beginTransaction(final ThreadContext context, final Connection connection,
         final IRubyObject isolation) throws SQLException {
         if ( isolation != null ) {
             setTransactionIsolation(context, connection, isolation);
         }
-        if ( connection.getAutoCommit() ) connection.setAutoCommit(false);
+        setAutoCommit(connection, false);
         return context.nil;
     }
 
@@ -372,18 +423,88 @@ public class RubyJdbcConnection extends RubyObject {
         }
     }
 
+    // auto-commit state of the current connection as tracked by us (changed only using #setAutoCommit)
+    private static final byte AUTO_COMMIT_UNKNOWN = 0;
+    private static final byte AUTO_COMMIT_ON = 1;
+    private static final byte AUTO_COMMIT_OFF = 2;
+
+    private volatile byte autoCommitState = AUTO_COMMIT_UNKNOWN;
+    private long autoCommitCalls, autoCommitCallsAvoided; // stats
+
+    /**
+     * Auto-commit state of the (current) connection, the driver is only asked once (per connection)
+     * after which the state is tracked on our side (and verified against the driver in debug mode).
+     * @param connection the current connection
+     * @return whether auto-commit is on (no transaction in progress)
+     * @throws SQLException
+     */
+    protected final boolean isAutoCommit(final Connection connection) throws SQLException {
+        final byte state = autoCommitState;
+        if ( state != AUTO_COMMIT_UNKNOWN ) {
+            autoCommitCallsAvoided++;
+            if ( isDebug(getRuntime()) ) return verifyAutoCommit(connection, state == AUTO_COMMIT_ON);
+            return state == AUTO_COMMIT_ON;
+        }
+        autoCommitCalls++;
+        final boolean autoCommit = connection.getAutoCommit();
+        autoCommitState = autoCommit ? AUTO_COMMIT_ON : AUTO_COMMIT_OFF;
+        return autoCommit;
+    }
+
+    /**
+     * Sets auto-commit on the (current) connection, unless it is known to be in the desired state.
+     * @param connection the current connection
+     * @param autoCommit true to turn on (commits a transaction in progress) false to start a transaction
+     * @throws SQLException
+     */
+    protected final void setAutoCommit(final Connection connection, final boolean autoCommit) throws SQLException {
+        final byte state = autoCommit ? AUTO_COMMIT_ON : AUTO_COMMIT_OFF;
+        if ( autoCommitState == state ) {
+            autoCommitCallsAvoided++;
+            if ( ! isDebug(getRuntime()) || verifyAutoCommit(connection, autoCommit) == autoCommit ) return;
+        }
+        autoCommitCalls++;
+        autoCommitState = AUTO_COMMIT_UNKNOWN; // in case setAutoCommit fails
+        connection.setAutoCommit(autoCommit);
+        autoCommitState = state;
+    }
+
+    private boolean verifyAutoCommit(final Connection connection, final boolean expected) throws SQLException {
+        final boolean autoCommit = connection.getAutoCommit();
+        if ( autoCommit != expected ) {
+            debugMessage(getRuntime(), "tracked auto-commit state (" + expected + ") differs from connection's: " + autoCommit);
+            autoCommitState = autoCommit ? AUTO_COMMIT_ON : AUTO_COMMIT_OFF;
+        }
+        return autoCommit;
+    }
+
+    /**
+     * @return counts of auto-commit driver calls made and the ones avoided (by tracking the state on our side)
+     */
+    @JRubyMethod(name = "auto_commit_stats")
+    public IRubyObject auto_commit_stats(final ThreadContext context) {
+        final Ruby runtime = context.runtime;
+        final RubyHash stats = RubyHash.newHash(runtime);
+        stats.fastASet(runtime.newSymbol("calls"), runtime.newFixnum(autoCommitCalls));
+        stats.fastASet(runtime.newSymbol("avoided"), runtime.newFixnum(autoCommitCallsAvoided));
+        return stats;
+    }
+
     @JRubyMethod(name = "commit")
     public IRubyObject commit(final ThreadContext context) {
+        if ( clearPendingBegin() ) return context.nil; // nothing executed - no need to touch the connection
+        checkConnectionUsable(context);
         try {
             final Connection connection = getConnectionInternal(true);
-            if ( ! connection.getAutoCommit() ) {
+            if ( ! isAutoCommit(connection) ) {
                 try {
                     connection.commit();
+                    if ( replicaRouter != null ) replicaRouter.transactionCommitted();
                     resetSavepoints(context, connection); // if any
                     return context.runtime.newBoolean(true);
                 }
                 finally {
-                    connection.setAutoCommit(true);
+                    setAutoCommit(connection, true);
                 }
             }
             return context.nil;
@@ -395,15 +516,18 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = "rollback")
     public IRubyObject rollback(final ThreadContext context) {
+        if ( replicaRouter != null ) replicaRouter.transactionRolledBack();
+        if ( clearPendingBegin() ) return context.nil; // nothing executed - no need to touch the connection
+        checkConnectionUsable(context);
         try {
             final Connection connection = getConnectionInternal(true);
-            if ( ! connection.getAutoCommit() ) {
+            if ( ! isAutoCommit(connection) ) {
                 try {
                     connection.rollback();
                     resetSavepoints(context, connection); // if any
                     return context.tru;
                 } finally {
-                    connection.setAutoCommit(true);
+                    setAutoCommit(connection, true);
                 }
             }
             return context.nil;
@@ -428,9 +552,11 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = "create_savepoint", required = 1)
     public IRubyObject create_savepoint(final ThreadContext context, IRubyObject name) {
+        checkConnectionUsable(context);
         try {
             final Connection connection = getConnectionInternal(true);
-            connection.setAutoCommit(false);
+            applyPendingBegin(context, connection);
+            setAutoCommit(connection, false);
 
             final Savepoint savepoint ;
             // NOTE: this will auto-start a DB transaction even invoked outside
@@ -456,6 +582,7 @@ public class RubyJdbcConnection extends RubyObject {
     @JRubyMethod(name = "rollback_savepoint", required = 1)
     public IRubyObject rollback_savepoint(final ThreadContext context, final IRubyObject name) {
         if (name == context.nil) throw context.runtime.newArgumentError("nil savepoint name given");
+        checkConnectionUsable(context);
 
         try {
             final Connection connection = getConnectionInternal(true);
@@ -485,6 +612,7 @@ public class RubyJdbcConnection extends RubyObject {
                 savepoint = ((IRubyObject) savepoint).toJava(Savepoint.class);
             }
 
+            checkConnectionUsable(context);
             final Connection connection = getConnectionInternal(true);
             releaseSavepoint(connection, (Savepoint) savepoint);
             return context.nil;
@@ -556,12 +684,14 @@ public class RubyJdbcConnection extends RubyObject {
 
         this.jndi = setupConnectionFactory(context);
         this.lazy = jndi; // JNDIs are lazy by default otherwise eager
+        this.settings = newSettings(context);
+        this.replicaRouter = newReplicaRouter(context);
         try {
             if (adapter == null || adapter == context.nil) {
                 warn(context, "adapter not set, please pass adapter on JdbcConnection#initialize(config, adapter)");
             }
 
-            if (!lazy) setConnection(newConnection());
+            if (!lazy) setConnection(newGuardedConnection());
         }
         catch (SQLException e) {
             String message = e.getMessage();
@@ -574,11 +704,82 @@ public class RubyJdbcConnection extends RubyObject {
         else {
             this.configureConnection = value != context.fals;
         }
+    }
+
+    /**
+     * Parses the (performance relevant) configuration, happens on initialize and on refresh.
+     * @param context
+     * @return settings used during statement execution
+     * @see #refresh_config(ThreadContext)
+     */
+    protected ConnectionSettings newSettings(final ThreadContext context) {
+        return ConnectionSettings.parse(context, this);
+    }
 
-        IRubyObject jdbcFetchSize = getConfigValue(context, "jdbc_fetch_size");
-        if (jdbcFetchSize != context.nil) {
-            this.fetchSize = toInt(context, jdbcFetchSize);
+    /**
+     * Re-reads settings from the configuration, needed for changes to the config hash to take effect.
+     */
+    @JRubyMethod(name = "refresh_config")
+    public IRubyObject refresh_config(final ThreadContext context) {
+        this.settings = newSettings(context);
+        return context.nil;
+    }
+
+    protected final ConnectionSettings getSettings() { return settings; }
+
+    private ReplicaRouter replicaRouter; // null unless replicas: configured
+
+    private ReplicaRouter newReplicaRouter(final ThreadContext context) {
+        final IRubyObject replicas = getConfigValue(context, "replicas");
+        if ( replicas.isNil() ) return null;
+        final RubyArray replicaArray = replicas.convertToArray();
+        if ( replicaArray.isEmpty() ) return null;
+
+        final ConnectionFactory primary = getConnectionFactory();
+        final ConnectionFactory[] factories = new ConnectionFactory[replicaArray.getLength()];
+        for ( int i = 0; i < factories.length; i++ ) {
+            final IRubyObject replica = replicaArray.eltInternal(i);
+            final IRubyObject jndi = replicaConfigValue(context, replica, "jndi");
+            if ( ! jndi.isNil() ) {
+                final String name = jndi.toString();
+                factories[i] = new DataSourceConnectionFactory(lookupDataSource(context, name), name);
+                continue;
+            }
+            final IRubyObject url = replicaConfigValue(context, replica, "url");
+            if ( url.isNil() || ! ( primary instanceof DriverConnectionFactory ) ) {
+                throw context.runtime.newArgumentError("replicas: expects entries with an url: (using the primary's driver) or jndi:");
+            }
+            final DriverConnectionFactory driverFactory = (DriverConnectionFactory) primary;
+            final IRubyObject username = replicaConfigValue(context, replica, "username");
+            final IRubyObject password = replicaConfigValue(context, replica, "password");
+            factories[i] = new DriverConnectionFactory(driverFactory.getDriverWrapper(), url.toString(),
+                username.isNil() ? driverFactory.username : username.toString(),
+                password.isNil() ? driverFactory.password : password.toString()
+            );
         }
+
+        final IRubyObject stickiness = getConfigValue(context, "replica_stickiness");
+        final double seconds = stickiness.isNil() ? 2.0 : toDouble(context, stickiness);
+        return new ReplicaRouter(factories, (long) (seconds * 1_000_000_000L));
+    }
+
+    private static IRubyObject replicaConfigValue(final ThreadContext context, final IRubyObject replica, final String key) {
+        return replica.callMethod(context, "[]", context.runtime.newSymbol(key));
+    }
+
+    /**
+     * @return replica routing statistics (nil if no replicas are configured)
+     */
+    @JRubyMethod(name = "replica_stats")
+    public IRubyObject replica_stats(final ThreadContext context) {
+        final ReplicaRouter router = this.replicaRouter;
+        if ( router == null ) return context.nil;
+        final Ruby runtime = context.runtime;
+        final RubyHash stats = RubyHash.newHash(runtime);
+        stats.fastASet(runtime.newSymbol("reads"), runtime.newFixnum(router.getReads()));
+        stats.fastASet(runtime.newSymbol("fallbacks"), runtime.newFixnum(router.getFallbacks()));
+        stats.fastASet(runtime.newSymbol("sticky"), runtime.newBoolean(router.isSticky()));
+        return stats;
     }
 
     @JRubyMethod(name = "adapter")
@@ -648,6 +849,15 @@ public class RubyJdbcConnection extends RubyObject {
                 }
             }
         }
+        // statements might get executed using the raw connection
+        if ( beginPending && connection != null ) {
+            try {
+                applyPendingBegin(context, connection);
+            }
+            catch (SQLException e) {
+                return handleException(context, e);
+            }
+        }
         return connection;
     }
 
@@ -675,6 +885,9 @@ public class RubyJdbcConnection extends RubyObject {
     @JRubyMethod(name = "disconnect!")
     public synchronized IRubyObject disconnect(final ThreadContext context) {
         setConnection(null); connected = false;
+        clearPendingBegin();
+        if ( replicaRouter != null ) replicaRouter.discard(false);
+        releaseConnectionFactory(context);
         return context.nil;
     }
 
@@ -691,13 +904,51 @@ public class RubyJdbcConnection extends RubyObject {
     }
 
     private void connectImpl(final boolean forceConnection) throws SQLException {
-        setConnection( forceConnection ? newConnection() : null );
+        setConnection( forceConnection ? newGuardedConnection() : null );
         if (forceConnection) {
             if (getConnectionImpl() == null) throw new SQLException("Didn't get a connection. Wrong URL?");
             configureConnection();
         }
     }
 
+    private Connection newGuardedConnection() throws SQLException {
+        final CircuitBreaker breaker = this.circuitBreaker;
+        if ( breaker == null ) return newConnection();
+
+        breaker.beforeConnect(); // fails fast when open
+        final Connection connection;
+        try {
+            connection = newConnection();
+        }
+        catch (SQLException|RuntimeException|Error e) {
+            // e.g. a wrong password or a missing database means the server is up
+            if ( isConnectFailure(e) ) breaker.failed(e);
+            else breaker.connected();
+            throw e;
+        }
+        breaker.connected();
+        return connection;
+    }
+
+    /**
+     * @param exception thrown while opening a new connection
+     * @return whether the failure means the database is not reachable (counted by the circuit breaker)
+     */
+    protected boolean isConnectFailure(final Throwable exception) {
+        Throwable e = exception;
+        for ( int i = 0; e != null && i < 8; i++ ) { // (bounded) cause chain walk
+            if ( e instanceof SQLRecoverableException || e instanceof SQLTransientConnectionException ) return true;
+            if ( e instanceof SQLException ) {
+                final String sqlState = ((SQLException) e).getSQLState();
+                if ( sqlState != null && sqlState.startsWith("08") ) return true; // connection exception
+            }
+            if ( e instanceof IOException ) return true; // e.g. ConnectException
+            if ( e.getCause() == e ) break;
+            e = e.getCause();
+        }
+        return false;
+    }
+
     @JRubyMethod(name = "read_only?")
     public IRubyObject is_read_only(final ThreadContext context) {
         try {
@@ -770,6 +1021,7 @@ public class RubyJdbcConnection extends RubyObject {
         // ActiveRecord expects a closed connection to not try and re-open a connection
         // whereas JNDI expects that.
         if (!jndi) disconnect(context);
+        else releaseConnectionFactory(context);
 
         return context.tru;
     }
@@ -789,6 +1041,7 @@ public class RubyJdbcConnection extends RubyObject {
     @JRubyMethod(name = "execute", required = 1)
     public IRubyObject execute(final ThreadContext context, final IRubyObject sql) {
         final String query = sqlString(sql);
+        markWrite(sql);
         return withConnection(context, connection -> {
             Statement statement = null;
             try {
@@ -796,7 +1049,8 @@ public class RubyJdbcConnection extends RubyObject {
 
                 // For DBs that do support multiple statements, lets return the last result set
                 // to be consistent with AR
-                boolean hasResultSet = doExecute(statement, query);
+                final Statement executeStatement = statement;
+                boolean hasResultSet = executeCancellable(context, statement, () -> doExecute(executeStatement, query));
                 int updateCount = statement.getUpdateCount();
 
                 IRubyObject result = context.nil; // If no results, return nil
@@ -836,17 +1090,129 @@ public class RubyJdbcConnection extends RubyObject {
     protected Statement createStatement(final ThreadContext context, final Connection connection)
         throws SQLException {
         final Statement statement = connection.createStatement();
-        IRubyObject escapeProcessing = getConfigValue(context, "statement_escape_processing");
+        final ConnectionSettings settings = this.settings;
+        final Boolean escapeProcessing = settings.getEscapeProcessing();
         // NOTE: disable (driver) escape processing by default, it's not really
         // needed for AR statements ... if users need it they might configure :
-        if ( escapeProcessing == context.nil ) {
-            statement.setEscapeProcessing(false);
+        statement.setEscapeProcessing(escapeProcessing != null && escapeProcessing);
+        applyStatementSettings(statement);
+        return statement;
+    }
+
+    protected final void applyStatementSettings(final Statement statement) throws SQLException {
+        final int fetchSize = settings.getFetchSize();
+        if (fetchSize != 0) statement.setFetchSize(fetchSize);
+        if (queryTimeout != 0) statement.setQueryTimeout(queryTimeout);
+    }
+
+    private int queryTimeout; // seconds (0 - none) for statements created within #with_query_timeout
+
+    /**
+     * Applies a query timeout to all statements executed within the given block.
+     * @param context
+     * @param timeout in seconds (<code>java.sql.Statement#setQueryTimeout</code>)
+     * @param block
+     * @return the block's result
+     */
+    @JRubyMethod(name = "with_query_timeout", required = 1)
+    public IRubyObject with_query_timeout(final ThreadContext context, final IRubyObject timeout, final Block block) {
+        if ( ! block.isGiven() ) throw context.runtime.newArgumentError("no block given");
+        final int previous = this.queryTimeout;
+        this.queryTimeout = timeout.isNil() ? 0 : (int) Math.ceil(toDouble(context, timeout));
+        try {
+            return block.yield(context, timeout);
         }
-        else {
-            statement.setEscapeProcessing(escapeProcessing.isTrue());
+        finally {
+            this.queryTimeout = previous;
         }
-        if (fetchSize != 0) statement.setFetchSize(fetchSize);
-        return statement;
+    }
+
+    private static final boolean CANCEL_ON_INTERRUPT = SafePropertyAccessor.getBoolean("arjdbc.cancel_on_interrupt", true);
+
+    private volatile Statement activeStatement; // in-flight (cancellable) statement
+
+    protected interface StatementExecution<T> {
+        T execute() throws SQLException;
+    }
+
+    /**
+     * Executes a statement so that it gets cancelled when the (Ruby) thread gets interrupted
+     * (e.g. <code>Thread#raise</code> due a <code>Timeout</code> or <code>Thread#kill</code>),
+     * thus the query does not keep running on the server while the connection is released.
+     * @param context
+     * @param statement the statement to cancel on interrupt
+     * @param execution executes the statement
+     * @return the execution's result
+     * @throws SQLException
+     * @see #cancel(ThreadContext)
+     */
+    protected <T> T executeCancellable(final ThreadContext context, final Statement statement,
+        final StatementExecution<T> execution) throws SQLException {
+        if ( ! CANCEL_ON_INTERRUPT ) return execution.execute();
+
+        activeStatement = statement;
+        try {
+            return context.getThread().executeTask(context, statement, new RubyThread.Task<Statement, T>() {
+
+                @Override
+                public T run(final ThreadContext context, final Statement statement) {
+                    try {
+                        return execution.execute();
+                    }
+                    catch (SQLException e) {
+                        throw new ExecutionException(e);
+                    }
+                }
+
+                @Override
+                public void wakeup(final RubyThread thread, final Statement statement) {
+                    cancel(statement); // from the interrupting thread
+                }
+
+            });
+        }
+        catch (ExecutionException e) {
+            throw e.getCause();
+        }
+        catch (InterruptedException e) {
+            final SQLException ex = new SQLTimeoutException("statement execution interrupted");
+            ex.initCause(e); throw ex;
+        }
+        finally {
+            activeStatement = null;
+        }
+    }
+
+    private static class ExecutionException extends RuntimeException {
+
+        ExecutionException(final SQLException cause) { super(cause); }
+
+        @Override
+        public synchronized SQLException getCause() { return (SQLException) super.getCause(); }
+
+        @Override
+        public Throwable fillInStackTrace() { return this; }
+
+    }
+
+    private static boolean cancel(final Statement statement) {
+        try {
+            statement.cancel(); return true;
+        }
+        catch (SQLException|RuntimeException e) { // closed or not supported
+            return false;
+        }
+    }
+
+    /**
+     * Cancels the statement currently executing (if any), meant to be called from another thread.
+     * @param context
+     * @return whether there was a statement to cancel
+     */
+    @JRubyMethod(name = "cancel")
+    public IRubyObject cancel(final ThreadContext context) {
+        final Statement statement = activeStatement;
+        return context.runtime.newBoolean( statement != null && cancel(statement) );
     }
 
     /**
@@ -867,7 +1233,7 @@ public class RubyJdbcConnection extends RubyObject {
         return mapQueryResult(context, connection, resultSet);
     }
 
-    private static String[] createStatementPk(IRubyObject pk) {
+    protected static String[] createStatementPk(IRubyObject pk) {
         String[] statementPk;
         if (pk instanceof RubyArray) {
             RubyArray ary = (RubyArray) pk;
@@ -892,6 +1258,26 @@ public class RubyJdbcConnection extends RubyObject {
      */
     @JRubyMethod(name = "execute_insert_pk", required = 2)
     public IRubyObject execute_insert_pk(final ThreadContext context, final IRubyObject sql, final IRubyObject pk) {
+        return executeInsert(context, sql, pk, false);
+    }
+
+    /**
+     * Executes an INSERT SQL statement returning the generated key(s) without building a result.
+     * @param context
+     * @param sql
+     * @param pk Rails PK
+     * @return the generated key as an Integer, an Array of keys if there's more than one (or nil)
+     * @throws SQLException
+     * @see #execute_insert_pk(ThreadContext, IRubyObject, IRubyObject)
+     */
+    @JRubyMethod(name = "execute_insert_id", required = 2)
+    public IRubyObject execute_insert_id(final ThreadContext context, final IRubyObject sql, final IRubyObject pk) {
+        return executeInsert(context, sql, pk, true);
+    }
+
+    private IRubyObject executeInsert(final ThreadContext context, final IRubyObject sql, final IRubyObject pk,
+                                      final boolean keysOnly) {
+        markWrite(null);
         return withConnection(context, connection -> {
             Statement statement = null;
             final String query = sqlString(sql);
@@ -905,7 +1291,8 @@ public class RubyJdbcConnection extends RubyObject {
                     statement.executeUpdate(query, createStatementPk(pk));
                 }
 
-                return mapGeneratedKeys(context, connection, statement);
+                return keysOnly ? mapGeneratedKeyValues(context, connection, statement) :
+                    mapGeneratedKeys(context, connection, statement);
             } catch (final SQLException e) {
                 debugErrorSQL(context, query);
                 throw e;
@@ -933,6 +1320,29 @@ public class RubyJdbcConnection extends RubyObject {
     @JRubyMethod(name = "execute_insert_pk", required = 3)
     public IRubyObject execute_insert_pk(final ThreadContext context, final IRubyObject sql, final IRubyObject binds,
                                          final IRubyObject pk) {
+        return executeInsert(context, sql, binds, pk, false);
+    }
+
+    /**
+     * Executes an INSERT SQL statement using a prepared statement returning the generated key(s)
+     * without building a result.
+     * @param context
+     * @param sql
+     * @param binds RubyArray of values to be bound to the query
+     * @param pk Rails PK
+     * @return the generated key as an Integer, an Array of keys if there's more than one (or nil)
+     * @throws SQLException
+     * @see #execute_insert_pk(ThreadContext, IRubyObject, IRubyObject, IRubyObject)
+     */
+    @JRubyMethod(name = "execute_insert_id", required = 3)
+    public IRubyObject execute_insert_id(final ThreadContext context, final IRubyObject sql, final IRubyObject binds,
+                                         final IRubyObject pk) {
+        return executeInsert(context, sql, binds, pk, true);
+    }
+
+    private IRubyObject executeInsert(final ThreadContext context, final IRubyObject sql, final IRubyObject binds,
+                                      final IRubyObject pk, final boolean keysOnly) {
+        markWrite(null);
         return withConnection(context, connection -> {
             PreparedStatement statement = null;
             final String query = sqlString(sql);
@@ -945,7 +1355,8 @@ public class RubyJdbcConnection extends RubyObject {
 
                 setStatementParameters(context, connection, statement, (RubyArray) binds);
                 statement.executeUpdate();
-                return mapGeneratedKeys(context, connection, statement);
+                return keysOnly ? mapGeneratedKeyValues(context, connection, statement) :
+                    mapGeneratedKeys(context, connection, statement);
             } catch (final SQLException e) {
                 debugErrorSQL(context, query);
                 throw e;
@@ -970,6 +1381,7 @@ public class RubyJdbcConnection extends RubyObject {
      */
     @JRubyMethod(name = {"execute_update", "execute_delete"}, required = 1)
     public IRubyObject execute_update(final ThreadContext context, final IRubyObject sql) {
+        markWrite(sql);
         return withConnection(context, (Callable<IRubyObject>) connection -> {
             Statement statement = null;
             final String query = sqlString(sql);
@@ -999,6 +1411,7 @@ public class RubyJdbcConnection extends RubyObject {
      */
     @JRubyMethod(name = {"execute_prepared_update", "execute_prepared_delete"}, required = 2)
     public IRubyObject execute_prepared_update(final ThreadContext context, final IRubyObject sql, final IRubyObject binds) {
+        markWrite(sql);
         return withConnection(context, (Callable<IRubyObject>) connection -> {
             PreparedStatement statement = null;
             final String query = sqlString(sql);
@@ -1016,6 +1429,57 @@ public class RubyJdbcConnection extends RubyObject {
         });
     }
 
+    /**
+     * Executes a single (prepared) SQL statement for every given binds array using JDBC batching,
+     * unless already in a transaction all of the executions happen within one (implicit) transaction.
+     * @param context current thread context
+     * @param sql the SQL statement (with ? placeholders)
+     * @param bindsList an array of binds arrays (values or attributes)
+     * @return an array of affected row counts (one per binds array)
+     */
+    @JRubyMethod(name = "execute_prepared_batch", required = 2)
+    public IRubyObject execute_prepared_batch(final ThreadContext context, final IRubyObject sql, final IRubyObject bindsList) {
+        final String query = sqlString(sql);
+        final RubyArray bindsArray = bindsList.convertToArray();
+        markWrite(sql);
+        return withConnection(context, connection -> {
+            final boolean autoCommit = isAutoCommit(connection);
+            PreparedStatement statement = null; boolean success = false;
+            try {
+                if ( autoCommit ) setAutoCommit(connection, false);
+
+                statement = connection.prepareStatement(query);
+                final int length = bindsArray.getLength();
+                for ( int i = 0; i < length; i++ ) {
+                    setStatementParameters(context, connection, statement, bindsArray.eltInternal(i).convertToArray());
+                    statement.addBatch();
+                }
+                final int[] rows = statement.executeBatch();
+
+                final RubyArray rowsAffected = allocArray(context, rows.length);
+                for ( int i = 0; i < rows.length; i++ ) {
+                    rowsAffected.append(context, asFixnum(context, rows[i]));
+                }
+                success = true;
+                return rowsAffected;
+            }
+            catch (final SQLException e) {
+                debugErrorSQL(context, query);
+                throw e;
+            }
+            finally {
+                close(statement);
+                if ( autoCommit ) {
+                    try {
+                        if ( success ) connection.commit();
+                        else connection.rollback();
+                    }
+                    finally { setAutoCommit(connection, true); }
+                }
+            }
+        });
+    }
+
     /**
      * This is the same as execute_query but it will return a list of hashes.
      *
@@ -1069,7 +1533,7 @@ public class RubyJdbcConnection extends RubyObject {
                 else {
                     final PreparedStatement prepStatement;
                     statement = prepStatement = connection.prepareStatement(query);
-                    if (fetchSize != 0) statement.setFetchSize(fetchSize);
+                    applyStatementSettings(statement);
                     statement.setMaxRows(maxRows); // zero means there is no limit
                     setStatementParameters(context, connection, prepStatement, binds);
                     hasResult = prepStatement.execute();
@@ -1112,14 +1576,15 @@ public class RubyJdbcConnection extends RubyObject {
      */
     @JRubyMethod(required = 1)
     public IRubyObject execute_query(final ThreadContext context, final IRubyObject sql) {
-        return withConnection(context, connection -> {
+        return withReadConnection(context, sql, connection -> {
             Statement statement = null;
             final String query = sqlString(sql);
             try {
                 statement = createStatement(context, connection);
 
                 // At least until AR 5.1 #exec_query still gets called for things that don't return results in some cases :(
-                if (statement.execute(query)) {
+                final Statement executeStatement = statement;
+                if (executeCancellable(context, statement, () -> executeStatement.execute(query))) {
                     return mapQueryResult(context, connection, statement.getResultSet());
                 }
 
@@ -1167,7 +1632,7 @@ public class RubyJdbcConnection extends RubyObject {
         return withConnection(context, connection -> {
             final String query = sql.convertToString().getUnicodeValue();
             PreparedStatement statement = connection.prepareStatement(query);
-            if (fetchSize != 0) statement.setFetchSize(fetchSize);
+            applyStatementSettings(statement);
             return JavaUtil.convertJavaToRuby(context.runtime, statement);
         });
     }
@@ -1191,23 +1656,26 @@ public class RubyJdbcConnection extends RubyObject {
     @JRubyMethod(required = 3)
     public IRubyObject execute_prepared_query(final ThreadContext context, final IRubyObject sql,
         final IRubyObject binds, final IRubyObject cachedStatement) {
-        return withConnection(context, connection -> {
-            final boolean cached = !(cachedStatement == null || cachedStatement.isNil());
+        final boolean cached = !(cachedStatement == null || cachedStatement.isNil());
+        // cached statements are bound to the (primary) connection
+        return withReadConnection(context, sql, ! cached, connection -> {
             String query = null;
             PreparedStatement statement = null;
 
             try {
                 if (cached) {
                     statement = (PreparedStatement) JavaEmbedUtils.rubyToJava(cachedStatement);
+                    // (re-)used within or outside of #with_query_timeout
+                    if (statement.getQueryTimeout() != queryTimeout) statement.setQueryTimeout(queryTimeout);
                 } else {
                     query = sql.convertToString().getUnicodeValue();
                     statement = connection.prepareStatement(query);
-                    if (fetchSize != 0) statement.setFetchSize(fetchSize);
+                    applyStatementSettings(statement);
                 }
 
                 setStatementParameters(context, connection, statement, (RubyArray) binds);
 
-                if (statement.execute()) {
+                if (executeCancellable(context, statement, statement::execute)) {
                     ResultSet resultSet = statement.getResultSet();
                     IRubyObject results = mapQueryResult(context, connection, resultSet);
                     resultSet.close();
@@ -1273,17 +1741,20 @@ public class RubyJdbcConnection extends RubyObject {
         final List<RubyString> keyNames = new ArrayList<>();
         try {
             resultSet = metaData.getPrimaryKeys(table.catalog, table.schema, table.name);
-            final Ruby runtime = context.runtime;
             while ( resultSet.next() ) {
-                String columnName = resultSet.getString(PRIMARY_KEYS_COLUMN_NAME);
-                columnName = caseConvertIdentifierForRails(connection, columnName);
-                keyNames.add( RubyString.newUnicodeString(runtime, columnName) );
+                keyNames.add( mapPrimaryKey(context, connection, resultSet) );
             }
         }
         finally { close(resultSet); }
         return keyNames;
     }
 
+    private RubyString mapPrimaryKey(final ThreadContext context,
+        final Connection connection, final ResultSet resultSet) throws SQLException {
+        final String columnName = resultSet.getString(PRIMARY_KEYS_COLUMN_NAME);
+        return RubyString.newUnicodeString(context.runtime, caseConvertIdentifierForRails(connection, columnName));
+    }
+
     @JRubyMethod(name = "tables", required = 0, optional = 4)
     public IRubyObject tables(final ThreadContext context, final IRubyObject[] args) {
         switch ( args.length ) {
@@ -1365,6 +1836,161 @@ public class RubyJdbcConnection extends RubyObject {
         });
     }
 
+    /**
+     * Introspects many tables at once e.g. to warm up the schema cache on boot. Columns, primary keys, indexes
+     * and foreign keys are fetched using a single (table name unfiltered) meta-data query each per schema,
+     * unless the driver requires a table name (than these are fetched per table), all with one connection
+     * check-out. Columns are mapped the same way as {@link #columns_internal(ThreadContext, IRubyObject[])} does.
+     * @param context
+     * @param args table names and (optional) catalog and default schema
+     * @return a hash of table name to
+     * <code>{ 'columns' => [], 'primary_keys' => [], 'indexes' => [], 'foreign_keys' => [] }</code>
+     * (tables that do not exist are not included)
+     */
+    @JRubyMethod(name = "schema_snapshot", required = 1, optional = 2)
+    public IRubyObject schema_snapshot(final ThreadContext context, final IRubyObject[] args) {
+        final RubyArray tableNames = args[0].convertToArray();
+        final String defaultCatalog = args.length > 1 ? toStringOrNull(args[1]) : null;
+        final String defaultSchema = args.length > 2 ? toStringOrNull(args[2]) : null;
+
+        return withConnection(context, connection -> {
+            final Ruby runtime = context.runtime;
+            final DatabaseMetaData metaData = connection.getMetaData();
+            final RubyClass Column = getJdbcColumnClass(context);
+            final RubyClass IndexDefinition = getIndexDefinition(context);
+            final RubyClass FKDefinition = getForeignKeyDefinition(context);
+
+            // (catalog, schema) -> (JDBC table name -> requested table name)
+            final Map<List<String>, Map<String, String>> schemas = new LinkedHashMap<>(4);
+            for ( int i = 0; i < tableNames.getLength(); i++ ) {
+                final String tableName = tableNames.eltInternal(i).toString();
+                final TableName components = extractTableName(connection, defaultCatalog, defaultSchema, tableName);
+                schemas.computeIfAbsent(Arrays.asList(components.catalog, components.schema), key -> new HashMap<>())
+                       .put(components.name, tableName);
+            }
+
+            final RubyString COLUMNS = cachedString(context, "columns");
+            final RubyString PRIMARY_KEYS = cachedString(context, "primary_keys");
+            final RubyString INDEXES = cachedString(context, "indexes");
+            final RubyString FOREIGN_KEYS = cachedString(context, "foreign_keys");
+
+            final RubyHash snapshot = RubyHash.newHash(runtime);
+            for ( Map.Entry<List<String>, Map<String, String>> entry : schemas.entrySet() ) {
+                final String catalog = entry.getKey().get(0);
+                final Map<String, String> tables = entry.getValue();
+                // a single table is still filtered (a schema might contain many more tables than requested)
+                final String tablePattern = tables.size() == 1 ? tables.keySet().iterator().next() : null;
+                String schema = entry.getKey().get(1);
+                if ( schema == null && tablePattern == null ) schema = currentSchema(connection);
+
+                // JDBC table name -> schema (same named tables from other schemas e.g. INFORMATION_SCHEMA are skipped)
+                final Map<String, String> tableSchemas = new HashMap<>(tables.size());
+                final Map<String, RubyArray> columns = new LinkedHashMap<>(tables.size());
+                ResultSet results = null;
+                try {
+                    results = metaData.getColumns(catalog, schema, tablePattern, null);
+                    while ( results.next() ) {
+                        final String tableName = results.getString(TABLE_NAME);
+                        if ( ! tables.containsKey(tableName) ) continue; // not requested
+                        if ( ! isSnapshotSchema(tableSchemas, tableName, results.getString(TABLE_SCHEM), true) ) continue;
+                        columns.computeIfAbsent(tableName, name -> newArray(context))
+                               .append(context, mapColumn(context, metaData, results, Column));
+                    }
+                }
+                finally { close(results); }
+
+                final Map<String, List<RubyString>> primaryKeys = new HashMap<>(columns.size());
+                final Map<String, RubyArray> indexes = new HashMap<>(columns.size());
+                final Map<String, RubyArray> foreignKeys = new HashMap<>(columns.size());
+
+                boolean fetched = false;
+                if ( tablePattern == null ) { // try fetching for all tables (of the schema) at once
+                    try {
+                        results = metaData.getPrimaryKeys(catalog, schema, null);
+                        while ( results.next() ) {
+                            final String tableName = results.getString(TABLE_NAME);
+                            if ( ! isSnapshotSchema(tableSchemas, tableName, results.getString(TABLE_SCHEM), false) ) continue;
+                            primaryKeys.computeIfAbsent(tableName, name -> new ArrayList<>(2))
+                                       .add( mapPrimaryKey(context, connection, results) );
+                        }
+                        close(results);
+
+                        results = metaData.getIndexInfo(catalog, schema, null, false, true);
+                        mapIndexes(context, metaData, results, IndexDefinition, primaryKeys, indexes, tableSchemas);
+                        close(results);
+
+                        results = metaData.getImportedKeys(catalog, schema, null);
+                        while ( results.next() ) {
+                            final String tableName = results.getString("FKTABLE_NAME");
+                            if ( ! isSnapshotSchema(tableSchemas, tableName, results.getString("FKTABLE_SCHEM"), false) ) continue;
+                            foreignKeys.computeIfAbsent(tableName, name -> newArray(context))
+                                       .append(context, mapForeignKey(context, metaData, results, FKDefinition));
+                        }
+                        fetched = true;
+                    }
+                    catch (SQLException e) { // e.g. H2, MySQL require a table name
+                        debugMessage(runtime, "schema snapshot falling back to per table meta-data: ", e);
+                        primaryKeys.clear(); indexes.clear(); foreignKeys.clear();
+                    }
+                    finally { close(results); }
+                }
+                if ( ! fetched ) {
+                    for ( String tableName : columns.keySet() ) {
+                        final TableName table = new TableName(catalog, tableSchemas.get(tableName), tableName);
+                        primaryKeys.put(tableName, primaryKeys(context, connection, table));
+                        try {
+                            results = metaData.getIndexInfo(table.catalog, table.schema, table.name, false, true);
+                            mapIndexes(context, metaData, results, IndexDefinition, primaryKeys, indexes, null);
+                            close(results);
+
+                            results = metaData.getImportedKeys(table.catalog, table.schema, table.name);
+                            final RubyArray fKeys = newArray(context);
+                            while ( results.next() ) {
+                                fKeys.append(context, mapForeignKey(context, metaData, results, FKDefinition));
+                            }
+                            foreignKeys.put(tableName, fKeys);
+                        }
+                        finally { close(results); }
+                    }
+                }
+
+                for ( Map.Entry<String, RubyArray> table : columns.entrySet() ) {
+                    final String tableName = table.getKey();
+                    final RubyHash entries = RubyHash.newHash(runtime);
+                    entries.fastASet(COLUMNS, table.getValue());
+                    final List<RubyString> keys = primaryKeys.get(tableName);
+                    entries.fastASet(PRIMARY_KEYS, keys == null ? newArray(context) : newArray(context, (List) keys));
+                    final RubyArray tableIndexes = indexes.get(tableName);
+                    entries.fastASet(INDEXES, tableIndexes == null ? newArray(context) : tableIndexes);
+                    final RubyArray tableForeignKeys = foreignKeys.get(tableName);
+                    entries.fastASet(FOREIGN_KEYS, tableForeignKeys == null ? newArray(context) : tableForeignKeys);
+                    snapshot.fastASetCheckString(runtime, runtime.newString(tables.get(tableName)), entries);
+                }
+            }
+            return snapshot;
+        });
+    }
+
+    /**
+     * @return whether the (snapshot) table is from the expected schema, the first schema seen wins (when adding)
+     */
+    private static boolean isSnapshotSchema(final Map<String, String> tableSchemas,
+        final String tableName, final String tableSchema, final boolean add) {
+        if ( add && ! tableSchemas.containsKey(tableName) ) {
+            tableSchemas.put(tableName, tableSchema); return true;
+        }
+        return tableSchemas.containsKey(tableName) && Objects.equals(tableSchemas.get(tableName), tableSchema);
+    }
+
+    private static String currentSchema(final Connection connection) {
+        try {
+            return connection.getSchema();
+        }
+        catch (SQLException|AbstractMethodError e) { // JDBC 4.1 not implemented
+            return null;
+        }
+    }
+
     @JRubyMethod(name = "indexes")
     public IRubyObject indexes(final ThreadContext context, IRubyObject tableName, IRubyObject name) {
         return indexes(context, toStringOrNull(tableName), toStringOrNull(name), null);
@@ -1391,7 +2017,6 @@ public class RubyJdbcConnection extends RubyObject {
      */
     protected IRubyObject indexes(final ThreadContext context, final String tableName, final String name, final String schemaName) {
         return withConnection(context, (Callable<IRubyObject>) connection -> {
-            final Ruby runtime = context.runtime;
             final RubyClass IndexDefinition = getIndexDefinition(context);
 
             String _tableName = caseConvertIdentifierForJdbc(connection, tableName);
@@ -1401,53 +2026,73 @@ public class RubyJdbcConnection extends RubyObject {
             final List<RubyString> primaryKeys = primaryKeys(context, connection, table);
 
             ResultSet indexInfoSet = null;
-            final RubyArray indexes = allocArray(context, 8);
             try {
                 final DatabaseMetaData metaData = connection.getMetaData();
                 indexInfoSet = metaData.getIndexInfo(table.catalog, table.schema, table.name, false, true);
-                String currentIndex = null;
-
-                while ( indexInfoSet.next() ) {
-                    String indexName = indexInfoSet.getString(INDEX_INFO_NAME);
-                    if ( indexName == null ) continue;
-                    RubyArray currentColumns = null;
-
-                    indexName = caseConvertIdentifierForRails(metaData, indexName);
 
-                    final String columnName = indexInfoSet.getString(INDEX_INFO_COLUMN_NAME);
-                    final RubyString rubyColumnName = cachedString(
-                            context, caseConvertIdentifierForRails(metaData, columnName)
-                    );
-                    if ( primaryKeys.contains(rubyColumnName) ) continue;
+                final Map<String, RubyArray> indexes = new HashMap<>(2);
+                mapIndexes(context, metaData, indexInfoSet, IndexDefinition,
+                    Collections.singletonMap(table.name, primaryKeys), indexes, null);
+                final RubyArray tableIndexes = indexes.get(table.name);
+                return tableIndexes == null ? allocArray(context, 0) : tableIndexes;
 
-                    // We are working on a new index
-                    if ( ! indexName.equals(currentIndex) ) {
-                        currentIndex = indexName;
-
-                        String indexTableName = indexInfoSet.getString(INDEX_INFO_TABLE_NAME);
-                        indexTableName = caseConvertIdentifierForRails(metaData, indexTableName);
+            } finally { close(indexInfoSet); }
+        });
+    }
 
-                        final boolean nonUnique = indexInfoSet.getBoolean(INDEX_INFO_NON_UNIQUE);
+    /**
+     * Maps (denormalized) index meta-data, rows are grouped per table and index (one row per index column).
+     * @param primaryKeys (JDBC) table name to primary key columns, these are not reported as index columns
+     * @param indexes (JDBC) table name to mapped indexes
+     * @param tableSchemas when given, only tables (from the schemas) it contains are mapped
+     */
+    private void mapIndexes(final ThreadContext context, final DatabaseMetaData metaData, final ResultSet indexInfoSet,
+        final RubyClass IndexDefinition, final Map<String, List<RubyString>> primaryKeys,
+        final Map<String, RubyArray> indexes, final Map<String, String> tableSchemas) throws SQLException {
+        // (table name, index name) -> columns of the index
+        final Map<List<String>, RubyArray> indexColumns = new HashMap<>();
 
-                        IRubyObject[] args = new IRubyObject[] {
-                            cachedString(context, indexTableName), // table_name
-                            cachedString(context, indexName), // index_name
-                            nonUnique ? context.fals : context.tru, // unique
-                            currentColumns = allocArray(context, 4) // [] column names
-                            // orders, (since AR 3.2) where, type, using (AR 4.0)
-                        };
+        while ( indexInfoSet.next() ) {
+            String indexName = indexInfoSet.getString(INDEX_INFO_NAME);
+            if ( indexName == null ) continue;
 
-                        indexes.append(context, IndexDefinition.newInstance(context, args, Block.NULL_BLOCK)); // IndexDefinition.new
-                    }
+            final String tableName = indexInfoSet.getString(INDEX_INFO_TABLE_NAME);
+            if ( tableSchemas != null &&
+                 ! isSnapshotSchema(tableSchemas, tableName, indexInfoSet.getString(TABLE_SCHEM), false) ) continue;
 
-                    // one or more columns can be associated with an index
-                    if ( currentColumns != null ) currentColumns.append(context, rubyColumnName);
-                }
+            indexName = caseConvertIdentifierForRails(metaData, indexName);
 
-                return indexes;
+            final String columnName = indexInfoSet.getString(INDEX_INFO_COLUMN_NAME);
+            final RubyString rubyColumnName = cachedString(
+                    context, caseConvertIdentifierForRails(metaData, columnName)
+            );
+            final List<RubyString> tablePrimaryKeys = primaryKeys.get(tableName);
+            if ( tablePrimaryKeys != null && tablePrimaryKeys.contains(rubyColumnName) ) continue;
+
+            final List<String> key = Arrays.asList(tableName, indexName);
+            RubyArray currentColumns = indexColumns.get(key);
+            // We are working on a new index
+            if ( currentColumns == null ) {
+                final String indexTableName = caseConvertIdentifierForRails(metaData, tableName);
+
+                final boolean nonUnique = indexInfoSet.getBoolean(INDEX_INFO_NON_UNIQUE);
+
+                IRubyObject[] args = new IRubyObject[] {
+                    cachedString(context, indexTableName), // table_name
+                    cachedString(context, indexName), // index_name
+                    nonUnique ? context.fals : context.tru, // unique
+                    currentColumns = allocArray(context, 4) // [] column names
+                    // orders, (since AR 3.2) where, type, using (AR 4.0)
+                };
+                indexColumns.put(key, currentColumns);
+
+                indexes.computeIfAbsent(tableName, name -> allocArray(context, 8))
+                       .append(context, IndexDefinition.newInstance(context, args, Block.NULL_BLOCK)); // IndexDefinition.new
+            }
 
-            } finally { close(indexInfoSet); }
-        });
+            // one or more columns can be associated with an index
+            currentColumns.append(context, rubyColumnName);
+        }
     }
 
     protected RubyClass getIndexDefinition(final ThreadContext context) {
@@ -1462,7 +2107,6 @@ public class RubyJdbcConnection extends RubyObject {
 
     protected IRubyObject foreignKeys(final ThreadContext context, final String tableName, final String schemaName, final String catalog) {
         return withConnection(context, (Callable<IRubyObject>) connection -> {
-            final Ruby runtime = context.runtime;
             final RubyClass FKDefinition = getForeignKeyDefinition(context);
 
             String _tableName = caseConvertIdentifierForJdbc(connection, tableName);
@@ -1476,41 +2120,47 @@ public class RubyJdbcConnection extends RubyObject {
                 fkInfoSet = metaData.getImportedKeys(table.catalog, table.schema, table.name);
 
                 while ( fkInfoSet.next() ) {
-                    final RubyHash options = RubyHash.newHash(runtime);
+                    fKeys.add( mapForeignKey(context, metaData, fkInfoSet, FKDefinition) );
+                }
 
-                    String fkName = fkInfoSet.getString("FK_NAME");
-                    if (fkName != null) {
-                        fkName = caseConvertIdentifierForRails(metaData, fkName);
-                        options.put(runtime.newSymbol("name"), fkName);
-                    }
+                return newArray(context, fKeys);
 
-                    String columnName = fkInfoSet.getString("FKCOLUMN_NAME");
-                    options.put(runtime.newSymbol("column"), caseConvertIdentifierForRails(metaData, columnName));
+            } finally { close(fkInfoSet); }
+        });
+    }
 
-                    columnName = fkInfoSet.getString("PKCOLUMN_NAME");
-                    options.put(runtime.newSymbol("primary_key"), caseConvertIdentifierForRails(metaData, columnName));
+    private IRubyObject mapForeignKey(final ThreadContext context, final DatabaseMetaData metaData,
+        final ResultSet fkInfoSet, final RubyClass FKDefinition) throws SQLException {
+        final Ruby runtime = context.runtime;
+        final RubyHash options = RubyHash.newHash(runtime);
 
-                    String fkTableName = fkInfoSet.getString("FKTABLE_NAME");
-                    fkTableName = caseConvertIdentifierForRails(metaData, fkTableName);
+        String fkName = fkInfoSet.getString("FK_NAME");
+        if (fkName != null) {
+            fkName = caseConvertIdentifierForRails(metaData, fkName);
+            options.put(runtime.newSymbol("name"), fkName);
+        }
 
-                    String pkTableName = fkInfoSet.getString("PKTABLE_NAME");
-                    pkTableName = caseConvertIdentifierForRails(metaData, pkTableName);
+        String columnName = fkInfoSet.getString("FKCOLUMN_NAME");
+        options.put(runtime.newSymbol("column"), caseConvertIdentifierForRails(metaData, columnName));
 
-                    final String onDelete = extractForeignKeyRule( fkInfoSet.getInt("DELETE_RULE") );
-                    if ( onDelete != null ) options.op_aset(context, runtime.newSymbol("on_delete"), runtime.newSymbol(onDelete));
+        columnName = fkInfoSet.getString("PKCOLUMN_NAME");
+        options.put(runtime.newSymbol("primary_key"), caseConvertIdentifierForRails(metaData, columnName));
 
-                    final String onUpdate = extractForeignKeyRule( fkInfoSet.getInt("UPDATE_RULE") );
-                    if ( onUpdate != null ) options.op_aset(context, runtime.newSymbol("on_update"), runtime.newSymbol(onUpdate));
+        String fkTableName = fkInfoSet.getString("FKTABLE_NAME");
+        fkTableName = caseConvertIdentifierForRails(metaData, fkTableName);
 
-                    IRubyObject from_table = cachedString(context, fkTableName);
-                    IRubyObject to_table = cachedString(context, pkTableName);
-                    fKeys.add( FKDefinition.newInstance(context, from_table, to_table, options, Block.NULL_BLOCK) ); // ForeignKeyDefinition.new
-                }
+        String pkTableName = fkInfoSet.getString("PKTABLE_NAME");
+        pkTableName = caseConvertIdentifierForRails(metaData, pkTableName);
 
-                return newArray(context, fKeys);
+        final String onDelete = extractForeignKeyRule( fkInfoSet.getInt("DELETE_RULE") );
+        if ( onDelete != null ) options.op_aset(context, runtime.newSymbol("on_delete"), runtime.newSymbol(onDelete));
 
-            } finally { close(fkInfoSet); }
-        });
+        final String onUpdate = extractForeignKeyRule( fkInfoSet.getInt("UPDATE_RULE") );
+        if ( onUpdate != null ) options.op_aset(context, runtime.newSymbol("on_update"), runtime.newSymbol(onUpdate));
+
+        IRubyObject from_table = cachedString(context, fkTableName);
+        IRubyObject to_table = cachedString(context, pkTableName);
+        return FKDefinition.newInstance(context, from_table, to_table, options, Block.NULL_BLOCK); // ForeignKeyDefinition.new
     }
 
     protected String extractForeignKeyRule(final int rule) {
@@ -1811,7 +2461,10 @@ public class RubyJdbcConnection extends RubyObject {
         final String pass = password.isNil() ? null : password.toString();
 
         final DriverWrapper driverWrapper = newDriverWrapper(context, driver.toString());
-        setConnectionFactory(factory = new DriverConnectionFactory(driverWrapper, jdbcURL, user, pass));
+        final DriverConnectionFactory driverFactory = new DriverConnectionFactory(driverWrapper, jdbcURL, user, pass);
+        // embedded: true (H2/HSQLDB) keeps the in-process engine open for the JVM's life-time
+        final boolean embedded = getConfigValue(context, "embedded").isTrue();
+        setConnectionFactory(factory = embedded ? new EmbeddedConnectionFactory(driverFactory) : driverFactory);
         return factory;
     }
 
@@ -1889,43 +2542,175 @@ public class RubyJdbcConnection extends RubyObject {
         return factory;
     }
 
-    private static transient IRubyObject defaultConfig;
-    private static volatile boolean defaultConfigJndi;
-    private static transient ConnectionFactory defaultConnectionFactory;
-
     /**
      * @return whether the connection factory is JNDI based
      */
     private boolean setupConnectionFactory(final ThreadContext context) {
-        if ( defaultConfig == null ) {
-            synchronized(RubyJdbcConnection.class) {
-                if ( defaultConfig == null ) {
-                    final boolean jndi = isJndiConfig(context, config);
-                    if ( jndi ) {
-                        defaultConnectionFactory = setDataSourceFactory(context);
-                    }
-                    else {
-                        defaultConnectionFactory = setDriverFactory(context);
-                    }
-                    defaultConfigJndi = jndi; defaultConfig = config;
-                    return jndi;
-                }
+        final ConnectionFactoryRegistry registry = ConnectionFactoryRegistry.forRuntime(context.runtime);
+        final ConnectionFactoryRegistry.Entry entry = registry.lookup(connectionFactoryKey(context), () -> {
+            final CircuitBreaker breaker = newCircuitBreaker(context);
+            if ( isJndiConfig(context, config) ) {
+                return new ConnectionFactoryRegistry.Entry(setDataSourceFactory(context), true, breaker);
             }
-        }
+            return new ConnectionFactoryRegistry.Entry(setDriverFactory(context), false, breaker);
+        });
+        setConnectionFactory(entry.factory);
+        this.circuitBreaker = entry.breaker;
+        this.connectionFactoryEntry = entry;
+        // config defaults need to be set for every connection, not only the one that set up the factory
+        final DriverWrapper driverWrapper = getDriverWrapper(entry.factory);
+        if ( driverWrapper != null ) configureDriverDefaults(context, driverWrapper);
+        return entry.jndi;
+    }
+
+    private static DriverWrapper getDriverWrapper(final ConnectionFactory factory) {
+        if ( factory instanceof DriverConnectionFactory ) return ((DriverConnectionFactory) factory).getDriverWrapper();
+        if ( factory instanceof EmbeddedConnectionFactory ) return ((EmbeddedConnectionFactory) factory).getDriverWrapper();
+        return null;
+    }
 
-        if ( defaultConfig != null && ( defaultConfig == config || defaultConfig.eql(config) ) ) {
-            setConnectionFactory( defaultConnectionFactory );
-            return defaultConfigJndi;
-        }
+    /**
+     * Sets (driver dependent) configuration defaults, unlike {@link #newDriverWrapper(ThreadContext, String)}
+     * called on every connection initialization (even when the driver has been set up before).
+     * @param context
+     * @param driverWrapper the (possibly shared) driver
+     */
+    protected void configureDriverDefaults(final ThreadContext context, final DriverWrapper driverWrapper) {
+        // NOOP
+    }
+
+    /**
+     * Releases the shared factory entry, the connection keeps (re-)using its factory if needed.
+     */
+    private void releaseConnectionFactory(final ThreadContext context) {
+        final ConnectionFactoryRegistry.Entry entry = this.connectionFactoryEntry;
+        if ( entry == null ) return;
+        this.connectionFactoryEntry = null;
+        ConnectionFactoryRegistry.forRuntime(context.runtime).release(entry);
+    }
+
+    /**
+     * Configured (for all connections sharing a factory) with the first connection's config e.g. :
+     * <pre>
+     *   circuit_breaker: true
+     *   circuit_breaker_threshold: 3 # consecutive connect failures before failing fast
+     *   circuit_breaker_backoff: 0.5 # seconds, doubles (up to the max) with every failed probe
+     *   circuit_breaker_max_backoff: 30
+     * </pre>
+     * @return null unless enabled using <code>circuit_breaker: true</code> (or a threshold)
+     */
+    private CircuitBreaker newCircuitBreaker(final ThreadContext context) {
+        final IRubyObject enabled = getConfigValue(context, "circuit_breaker");
+        final IRubyObject threshold = getConfigValue(context, "circuit_breaker_threshold");
+        if ( enabled == context.fals || ( ! enabled.isTrue() && threshold.isNil() ) ) return null;
+        return new CircuitBreaker(
+            threshold.isNil() ? 3 : toInt(context, threshold),
+            secondsToNanos(context, getConfigValue(context, "circuit_breaker_backoff"), 0.5),
+            secondsToNanos(context, getConfigValue(context, "circuit_breaker_max_backoff"), 30)
+        );
+    }
+
+    private static long secondsToNanos(final ThreadContext context, final IRubyObject seconds, final double defaultSeconds) {
+        final double value = seconds.isNil() ? defaultSeconds : toDouble(context, seconds);
+        return (long) (value * 1_000_000_000L);
+    }
+
+    /**
+     * @return connect circuit breaker statistics (nil if disabled)
+     */
+    @JRubyMethod(name = "circuit_breaker_stats")
+    public IRubyObject circuit_breaker_stats(final ThreadContext context) {
+        final CircuitBreaker breaker = this.circuitBreaker;
+        if ( breaker == null ) return context.nil;
+        final Ruby runtime = context.runtime;
+        final RubyHash stats = RubyHash.newHash(runtime);
+        stats.fastASet(runtime.newSymbol("state"), runtime.newSymbol(breaker.getState().name().toLowerCase(Locale.ENGLISH)));
+        stats.fastASet(runtime.newSymbol("trips"), runtime.newFixnum(breaker.getTrips()));
+        stats.fastASet(runtime.newSymbol("rejected"), runtime.newFixnum(breaker.getRejected()));
+        stats.fastASet(runtime.newSymbol("recoveries"), runtime.newFixnum(breaker.getRecoveries()));
+        stats.fastASet(runtime.newSymbol("last_recovery_time"), // seconds
+            runtime.newFloat(breaker.getLastRecoveryNanos() / 1_000_000_000.0));
+        return stats;
+    }
 
-        if ( isJndiConfig(context, config) ) {
-            setDataSourceFactory(context); return true;
+    /**
+     * The (normalized) part of the configuration that determines the connection factory,
+     * all other (e.g. pool or statement related) settings do not matter.
+     * Credentials (as well as the URL and properties that might include them) are only kept as a digest.
+     * @param context
+     * @return a key for connections that might share a factory
+     */
+    protected Object connectionFactoryKey(final ThreadContext context) {
+        return Arrays.asList(
+            factoryKeyValue(getConfigValue(context, "jndi")),
+            factoryKeyValue(getConfigValue(context, "data_source")),
+            factoryKeyValue(getConfigValue(context, "driver_instance")),
+            factoryKeyValue(getConfigValue(context, "driver")),
+            factoryKeyDigest(
+                factoryKeyValue(getConfigValue(context, "url")),
+                factoryKeyValue(getConfigValue(context, "options")),
+                factoryKeyValue(getConfigValue(context, "properties")),
+                factoryKeyValue(getConfigValue(context, "username")),
+                factoryKeyValue(getConfigValue(context, "password"))
+            ),
+            getConfigValue(context, "embedded").isTrue()
+        );
+    }
+
+    private static String factoryKeyDigest(final Object... values) {
+        final StringBuilder str = new StringBuilder(128);
+        for ( final Object value : values ) {
+            if ( value == null ) { str.append('-'); continue; }
+            final String val = value.toString(); // (sorted) options: and properties: maps included
+            str.append(val.length()).append(':').append(val);
         }
-        else {
-            setDriverFactory(context); return false;
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(str.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        }
+        catch (NoSuchAlgorithmException e) { // SHA-256 is always supported
+            throw new IllegalStateException(e);
         }
     }
 
+    private static Object factoryKeyValue(final IRubyObject value) {
+        if ( value.isNil() ) return null;
+        if ( value instanceof RubyString || value instanceof RubySymbol ) return value.toString();
+        if ( value instanceof RubyHash ) { // options: or properties: (key order does not matter)
+            final Map<String, Object> map = new TreeMap<>();
+            for ( Object entry : ((RubyHash) value).directEntrySet() ) {
+                final Map.Entry<?, ?> e = (Map.Entry<?, ?>) entry;
+                map.put(e.getKey().toString(), factoryKeyValue((IRubyObject) e.getValue()));
+            }
+            return map;
+        }
+        return value.toJava(Object.class); // e.g. a DataSource (identity)
+    }
+
+    /**
+     * @return statistics of the (runtime wide) connection factory registry
+     */
+    @JRubyMethod(name = "connection_factory_stats", meta = true)
+    public static IRubyObject connection_factory_stats(final ThreadContext context, final IRubyObject self) {
+        final Ruby runtime = context.runtime;
+        final ConnectionFactoryRegistry registry = ConnectionFactoryRegistry.forRuntime(runtime);
+        final RubyHash stats = RubyHash.newHash(runtime);
+        stats.fastASet(runtime.newSymbol("factories"), runtime.newFixnum(registry.size()));
+        stats.fastASet(runtime.newSymbol("created"), runtime.newFixnum(registry.getCreated()));
+        stats.fastASet(runtime.newSymbol("reused"), runtime.newFixnum(registry.getReused()));
+        return stats;
+    }
+
+    /**
+     * Forgets all shared connection factories (e.g. after a driver or data-source got replaced),
+     * existing connections are not affected.
+     */
+    @JRubyMethod(name = "clear_connection_factories", meta = true)
+    public static IRubyObject clear_connection_factories(final ThreadContext context, final IRubyObject self) {
+        ConnectionFactoryRegistry.forRuntime(context.runtime).clear();
+        return context.nil;
+    }
+
     @JRubyMethod(name = "jndi?", alias = "jndi_connection?")
     public RubyBoolean jndi_p(final ThreadContext context) {
         return context.runtime.newBoolean(jndi);
@@ -1933,6 +2718,16 @@ public class RubyJdbcConnection extends RubyObject {
 
     protected boolean isJndi() { return this.jndi; }
 
+    /**
+     * Shuts down an embedded engine started for connections configured with <code>embedded: true</code>.
+     * @return whether the engine was started
+     * @see EmbeddedConnectionFactory
+     */
+    @JRubyMethod(name = "shutdown_embedded", required = 1, meta = true)
+    public static IRubyObject shutdown_embedded(final ThreadContext context, final IRubyObject self, final IRubyObject url) {
+        return context.runtime.newBoolean( EmbeddedConnectionFactory.shutdown(url.toString()) );
+    }
+
     @JRubyMethod(name = "config")
     public IRubyObject config() { return config; }
 
@@ -2964,6 +3759,7 @@ public class RubyJdbcConnection extends RubyObject {
     private void setConnection(final Connection connection) {
         close( getConnectionImpl() ); // close previously open connection if there is one
         dataWrapStruct(connection);
+        autoCommitState = AUTO_COMMIT_UNKNOWN;
         if ( connection != null ) logDriverUsed(connection);
     }
 
@@ -2971,7 +3767,7 @@ public class RubyJdbcConnection extends RubyObject {
         if ( connection == null ) return false;
         Statement statement = null;
         try {
-            final String aliveSQL = getAliveSQL(context);
+            final String aliveSQL = settings.getAliveSQL();
             final int aliveTimeout = getAliveTimeout(context);
             if ( aliveSQL != null ) { // expect a SELECT/CALL SQL statement
                 statement = createStatement(context, connection);
@@ -2996,29 +3792,11 @@ public class RubyJdbcConnection extends RubyObject {
         finally { close(statement); }
     }
 
-    private static final String NIL_ALIVE_SQL = new String(); // no set value marker
-
-    private transient String aliveSQL = null;
-
-    private String getAliveSQL(final ThreadContext context) {
-        if ( aliveSQL == null ) {
-            final IRubyObject alive_sql = getConfigValue(context, "connection_alive_sql");
-            aliveSQL = ( alive_sql == context.nil ) ? NIL_ALIVE_SQL : alive_sql.asString().toString();
-        }
-        return aliveSQL == NIL_ALIVE_SQL ? null : aliveSQL;
-    }
-
-    private transient int aliveTimeout = Integer.MIN_VALUE;
-
     /**
      * internal API do not depend on it
      */
     protected int getAliveTimeout(final ThreadContext context) {
-        if ( aliveTimeout == Integer.MIN_VALUE ) {
-            final IRubyObject timeout = getConfigValue(context, "connection_alive_timeout");
-            aliveTimeout = timeout == context.nil ? 0 : toInt(context, timeout);
-        }
-        return aliveTimeout;
+        return settings.getAliveTimeout();
     }
 
     private boolean tableExists(final ThreadContext context,
@@ -3097,6 +3875,7 @@ public class RubyJdbcConnection extends RubyObject {
         return tables;
     }
 
+    protected static final int TABLE_SCHEM = 2;
     protected static final int TABLE_NAME = 3;
     protected static final int COLUMN_NAME = 4;
     protected static final int DATA_TYPE = 5;
@@ -3154,28 +3933,38 @@ public class RubyJdbcConnection extends RubyObject {
         final RubyClass Column)
         throws SQLException {
 
-        final Ruby runtime = context.runtime;
-
         final RubyArray columns = newArray(context);
         while ( results.next() ) {
-            final String colName = results.getString(COLUMN_NAME);
-            final RubyString columnName = cachedString(context, caseConvertIdentifierForRails(metaData, colName));
-            final IRubyObject defaultValue = defaultValueFromResultSet( runtime, results );
-            final RubyString sqlType = cachedString(context, typeFromResultSet(results));
-            final RubyBoolean nullable = runtime.newBoolean( ! results.getString(IS_NULLABLE).trim().equals("NO") );
+            columns.append(context, mapColumn(context, metaData, results, Column));
+        }
+        return columns;
+    }
 
-            final String tabName = results.getString(TABLE_NAME);
-            final RubyString tableName = cachedString(context, caseConvertIdentifierForRails(metaData, tabName));
+    /**
+     * Maps the current row of a {@link DatabaseMetaData#getColumns} result to a column.
+     */
+    protected IRubyObject mapColumn(final ThreadContext context,
+        final DatabaseMetaData metaData, final ResultSet results, final RubyClass Column)
+        throws SQLException {
 
-            final IRubyObject type_metadata = adapter.callMethod(context, "fetch_type_metadata", sqlType);
+        final Ruby runtime = context.runtime;
 
-            // (name, default, sql_type_metadata = nil, null = true, table_name = nil, default_function = nil, collation = nil, comment: nil)
-            final IRubyObject[] args = new IRubyObject[] {
-                columnName, defaultValue, type_metadata, nullable, tableName
-            };
-            columns.append(context, Column.newInstance(context, args, Block.NULL_BLOCK));
-        }
-        return columns;
+        final String colName = results.getString(COLUMN_NAME);
+        final RubyString columnName = cachedString(context, caseConvertIdentifierForRails(metaData, colName));
+        final IRubyObject defaultValue = defaultValueFromResultSet( runtime, results );
+        final RubyString sqlType = cachedString(context, typeFromResultSet(results));
+        final RubyBoolean nullable = runtime.newBoolean( ! results.getString(IS_NULLABLE).trim().equals("NO") );
+
+        final String tabName = results.getString(TABLE_NAME);
+        final RubyString tableName = cachedString(context, caseConvertIdentifierForRails(metaData, tabName));
+
+        final IRubyObject type_metadata = adapter.callMethod(context, "fetch_type_metadata", sqlType);
+
+        // (name, default, sql_type_metadata = nil, null = true, table_name = nil, default_function = nil, collation = nil, comment: nil)
+        final IRubyObject[] args = new IRubyObject[] {
+            columnName, defaultValue, type_metadata, nullable, tableName
+        };
+        return Column.newInstance(context, args, Block.NULL_BLOCK);
     }
 
     private static Collection<String> getPrimaryKeyNames(final DatabaseMetaData metaData,
@@ -3202,6 +3991,12 @@ public class RubyJdbcConnection extends RubyObject {
         return context.nil; // Adapters should know they don't support it and override this or Adapter#last_inserted_id
     }
 
+    private IRubyObject mapGeneratedKeyValues(final ThreadContext context,
+        final Connection connection, final Statement statement) throws SQLException {
+        final IRubyObject keys = mapGeneratedKeys(context, connection, statement, null);
+        return keys == null ? context.nil : keys; // null - generated keys not supported
+    }
+
     protected IRubyObject mapGeneratedKeys(
         ThreadContext context, final Connection connection,
         final Statement statement, final Boolean singleResult)
@@ -3308,6 +4103,31 @@ public class RubyJdbcConnection extends RubyObject {
         return context.nil; // yielded result rows
     }
 
+    /**
+     * Yields a (raw) row hash for every row as it gets read from the result set,
+     * in contrast to {@link #mapToRawResult} rows are not collected.
+     * @param context
+     * @param connection
+     * @param resultSet
+     * @param block
+     * @return number of rows yielded
+     * @throws SQLException
+     */
+    protected long yieldRawRows(final ThreadContext context,
+            final Connection connection, final ResultSet resultSet,
+            final Block block) throws SQLException {
+
+        final ColumnData[] columns = extractColumns(context, connection, resultSet, false);
+
+        final Ruby runtime = context.runtime;
+        long count = 0;
+        while ( resultSet.next() ) {
+            block.yield( context, mapRawRow(context, runtime, columns, resultSet, this) );
+            count++;
+        }
+        return count;
+    }
+
     /**
      * Extract columns from result set.
      * @param context
@@ -3333,14 +4153,111 @@ public class RubyJdbcConnection extends RubyObject {
         }
     }
 
+    /**
+     * Executes a query on a replica connection (when configured) unless within a transaction or shortly
+     * after a write (the primary connection is used then). Only plain (non-locking) <code>SELECT</code>s
+     * are routed, other statements executed on the primary count as writes.
+     * @param context
+     * @param sql the query (null if it should run on the primary connection)
+     * @param block
+     * @return the block's result
+     * @throws RaiseException
+     * @see ReplicaRouter
+     */
+    protected <T> T withReadConnection(final ThreadContext context, final IRubyObject sql, final Callable<T> block)
+            throws RaiseException {
+        return withReadConnection(context, sql, true, block);
+    }
+
+    private <T> T withReadConnection(final ThreadContext context, final IRubyObject sql, final boolean replicable,
+                                     final Callable<T> block) throws RaiseException {
+        final ReplicaRouter router = this.replicaRouter;
+        if ( router == null ) return withConnection(context, block);
+        if ( ! replicable || ! isReplicaRead(sql) ) {
+            if ( sql != null ) markWrite(sql); // e.g. INSERT ... RETURNING
+            return withConnection(context, block);
+        }
+        try {
+            if ( beginPending || router.isSticky() ) return withConnection(context, true, block);
+            final Connection primary = getConnectionImpl();
+            if ( primary != null && ! isAutoCommit(primary) ) return withConnection(context, true, block);
+        }
+        catch (SQLException e) {
+            return handleException(context, e);
+        }
+
+        Connection replica = null;
+        try {
+            replica = router.getConnection();
+            return block.call(replica);
+        }
+        catch (RaiseException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            if ( replica != null && isConnectionValid(context, replica) ) {
+                return handleException(context, e); // not a connection failure
+            }
+            debugMessage(context.runtime, "replica failed, re-trying read on primary: ", e);
+            router.discard(true);
+            try {
+                return withConnection(context, true, block);
+            }
+            catch (SQLException ex) {
+                return handleException(context, ex);
+            }
+        }
+    }
+
+    private static boolean isReplicaRead(final IRubyObject sql) {
+        // SELECT ... FOR UPDATE (or FOR SHARE) as well as locking functions need the primary
+        return sql != null && isReadQuery(sql.convertToString().getByteList());
+    }
+
+    /**
+     * With replicas configured, marks a write (DML/DDL) to the primary thus reads stick to it for a while.
+     * @param sql the executed statement, null for an (unconditional) write
+     * @see ReplicaRouter#markWrite()
+     */
+    protected final void markWrite(final IRubyObject sql) {
+        final ReplicaRouter router = this.replicaRouter;
+        if ( router == null ) return;
+        if ( sql == null || isWriteQuery(sql.convertToString().getByteList()) ) router.markWrite();
+    }
+
+    /**
+     * Same as {@link #withConnection(ThreadContext, Callable)} but the block is never re-tried on failure,
+     * meant for blocks with (Ruby) side-effects e.g. yielding rows while streaming.
+     * @param context
+     * @param block
+     * @return the block's result
+     * @throws RaiseException
+     */
+    protected <T> T withConnectionNoRetry(final ThreadContext context, final Callable<T> block)
+            throws RaiseException {
+        try {
+            return withConnection(context, true, false, block);
+        }
+        catch (final SQLException e) {
+            return handleException(context, e); // should never happen
+        }
+    }
+
     private <T> T withConnection(final ThreadContext context, final boolean handleException,
                                  final Callable<T> block) throws RaiseException, SQLException {
+        return withConnection(context, handleException, true, block);
+    }
+
+    private <T> T withConnection(final ThreadContext context, final boolean handleException,
+                                 final boolean retryable, final Callable<T> block) throws RaiseException, SQLException {
+        checkConnectionUsable(context);
 
         Exception exception; int retry = 0; int i = 0;
 
         boolean reconnectOnRetry = true; boolean gotConnection = false;
         do {
             boolean autoCommit = true; // retry in-case getAutoCommit throws
+            boolean beginning = false;
             try {
                 if ( retry > 0 ) { // we're retrying running the block
                     if ( reconnectOnRetry ) {
@@ -3359,21 +4276,33 @@ public class RubyJdbcConnection extends RubyObject {
                     throw new NoConnectionException();
                 }
                 gotConnection = true;
-                autoCommit = connection.getAutoCommit();
+                if ( beginPending ) {
+                    beginning = true;
+                    applyPendingBegin(context, connection);
+                    beginning = false;
+                }
+                autoCommit = isAutoCommit(connection);
                 return block.call(connection);
             }
             catch (final Exception e) { // SQLException or RuntimeException
                 exception = e;
 
-                if ( i == 0 ) retry = 1;
+                if ( i == 0 ) retry = retryable ? settings.getConnectionRetries() : 0;
 
-                if ( ! gotConnection ) { // SQLException from driver/data-source
+                if ( beginning ) {
+                    // (lazy) transaction begin failed - never re-run the block outside of the transaction
+                    break;
+                }
+                else if ( ! gotConnection ) { // SQLException from driver/data-source
                     reconnectOnRetry = connected;
                 }
                 else if (!autoCommit) {
                     // never retry inside a transaction
                     break;
                 }
+                else if ( isCancelled(exception) ) {
+                    break; // a timed out (or cancelled) statement is not re-tried
+                }
                 else if ( isTransient(exception) ) {
                     reconnectOnRetry = false; // continue;
                 }
@@ -3393,6 +4322,16 @@ public class RubyJdbcConnection extends RubyObject {
         return withConnectionError(context, exception, handleException, gotConnection);
     }
 
+    /**
+     * Called before the connection gets used to execute statements (or to control the transaction),
+     * an adapter raises here when the connection currently can not be used e.g. while a result is streamed.
+     * @param context
+     * @throws RaiseException
+     */
+    protected void checkConnectionUsable(final ThreadContext context) throws RaiseException {
+        // no-op by default
+    }
+
     // NOTE: this is meant to be internal - seeing this from the outside is a sign smt is not right!
     private static class NoConnectionException extends RuntimeException {
 
@@ -3431,6 +4370,15 @@ public class RubyJdbcConnection extends RubyObject {
         return exception instanceof SQLTransientException;
     }
 
+    /**
+     * @param exception
+     * @return whether the statement timed out or got cancelled (these are never re-tried)
+     */
+    protected boolean isCancelled(final Exception exception) {
+        if ( exception instanceof SQLTimeoutException ) return true;
+        return exception instanceof SQLException && "57014".equals(((SQLException) exception).getSQLState());
+    }
+
     protected boolean isRecoverable(final Exception exception) {
         return exception instanceof SQLRecoverableException;
         // exception instanceof SQLException; // pre JDBC 4.0 drivers?
@@ -3485,9 +4433,44 @@ public class RubyJdbcConnection extends RubyObject {
     }
 
     protected RaiseException wrapException(final ThreadContext context, final SQLException exception, String message) {
+        if ( MAP_SQL_ERRORS ) {
+            final RubyClass errorClass = mapErrorClass(context, exception);
+            if ( errorClass != null ) return wrapMappedException(context, errorClass, exception, message);
+        }
         return wrapSQLException(context, getJDBCError(context), exception, message);
     }
 
+    private static final boolean MAP_SQL_ERRORS = SafePropertyAccessor.getBoolean("arjdbc.map_sql_errors", true);
+
+    /**
+     * @return the table used to raise expected failures as specific errors (e.g. <code>RecordNotUnique</code>)
+     */
+    protected SQLErrorTable getErrorTable() {
+        return SQLErrorTable.DEFAULT;
+    }
+
+    private RubyClass mapErrorClass(final ThreadContext context, final SQLException exception) {
+        final String name = getErrorTable().lookup(exception);
+        if ( name == null ) return null;
+        final IRubyObject errorClass = getModule(context, "ActiveRecord").getConstantNoConstMissing(context, name, false);
+        return errorClass instanceof RubyClass ? (RubyClass) errorClass : null;
+    }
+
+    /**
+     * Raises a mapped error as is (its cause being the Java exception) instead of a <code>JDBCError</code>
+     * that gets translated on the Ruby side, the SQL and binds are filled in by the adapter.
+     */
+    private static RaiseException wrapMappedException(final ThreadContext context, final RubyClass errorClass,
+                                                      final SQLException exception, String message) {
+        if ( message == null ) {
+            message = SQLException.class == exception.getClass() ?
+                    exception.getMessage() : exception.toString();
+        }
+        final RaiseException raise = wrapException(context, errorClass, exception, message);
+        raise.getException().setCause(JavaEmbedUtils.javaToRuby(context.runtime, exception));
+        return raise;
+    }
+
     protected RaiseException wrapException(final ThreadContext context, final RubyClass errorClass, final SQLException exception) {
         return wrapSQLException(context, errorClass, exception, null);
     }
@@ -3541,6 +4524,93 @@ public class RubyJdbcConnection extends RubyObject {
                StringHelper.startsWithIgnoreCase(sqlBytes, CALL);
     }
 
+    // words that turn a SELECT (or WITH) query into a write, make it take locks or depend on the session,
+    // string literals are not skipped (a false positive only means the query is not treated as a read)
+    private static final byte[][] NON_READ_WORDS = toBytes(
+        "insert", "update", "delete", "merge", "into", // DML within WITH, SELECT ... INTO
+        "share", "lock", // FOR UPDATE, FOR [NO] KEY UPDATE, FOR [KEY] SHARE, LOCK IN SHARE MODE
+        "nextval", "setval", "currval", "lastval", "set_config", // PostgreSQL
+        "get_lock", "release_lock", "release_all_locks", "last_insert_id", "found_rows", "row_count", // MySQL
+        "last_insert_rowid", "changes" // SQLite
+    );
+    private static final byte[][] NON_READ_PREFIXES = toBytes("pg_advisory", "pg_try_advisory");
+    // words that turn a WITH query into a write (e.g. PostgreSQL's data-modifying CTEs)
+    private static final byte[][] WRITE_WORDS = toBytes("insert", "update", "delete", "merge");
+
+    private static byte[][] toBytes(final String... words) {
+        final byte[][] bytes = new byte[words.length][];
+        for ( int i = 0; i < words.length; i++ ) bytes[i] = words[i].getBytes(StandardCharsets.US_ASCII);
+        return bytes;
+    }
+
+    /**
+     * Whether the query is a plain read (<code>SELECT</code> or <code>WITH</code>) without side-effects,
+     * thus safe to execute on another (read-only) connection e.g. a replica.
+     * @param sql the query
+     * @return true if it is a read
+     */
+    protected static boolean isReadQuery(final ByteList sql) {
+        if ( ! startsWithIgnoreCase(sql, SELECT) && ! startsWithIgnoreCase(sql, WITH) ) return false;
+
+        final byte[] bytes = sql.unsafeBytes();
+        final int end = sql.getBegin() + sql.getRealSize();
+        for ( int i = sql.getBegin(); i < end; ) {
+            if ( ! isWordByte(bytes[i]) ) { i++; continue; }
+            int e = i + 1;
+            while ( e < end && isWordByte(bytes[e]) ) e++;
+            if ( isNonReadWord(bytes, i, e - i) ) return false;
+            i = e;
+        }
+        return true;
+    }
+
+    /**
+     * Whether the statement (potentially) modifies data, thus reads should stick to the primary for a while.
+     * Unlike {@link #isReadQuery(ByteList)} a locking or session dependent <code>SELECT</code> is not a write.
+     * @param sql the statement
+     * @return true unless a <code>SELECT</code> or a <code>WITH</code> query without DML
+     */
+    protected static boolean isWriteQuery(final ByteList sql) {
+        if ( startsWithIgnoreCase(sql, SELECT) ) return false;
+        if ( ! startsWithIgnoreCase(sql, WITH) ) return true;
+
+        final byte[] bytes = sql.unsafeBytes();
+        final int end = sql.getBegin() + sql.getRealSize();
+        for ( int i = sql.getBegin(); i < end; ) {
+            if ( ! isWordByte(bytes[i]) ) { i++; continue; }
+            int e = i + 1;
+            while ( e < end && isWordByte(bytes[e]) ) e++;
+            for ( final byte[] word : WRITE_WORDS ) {
+                if ( word.length == e - i && equalsIgnoreCase(bytes, i, word) ) return true;
+            }
+            i = e;
+        }
+        return false;
+    }
+
+    private static boolean isWordByte(final byte b) {
+        return ( b >= 'a' && b <= 'z' ) || ( b >= 'A' && b <= 'Z' ) || ( b >= '0' && b <= '9' ) ||
+                b == '_' || b == '$' || b < 0; // b < 0 : non-ASCII
+    }
+
+    private static boolean isNonReadWord(final byte[] bytes, final int off, final int len) {
+        for ( final byte[] word : NON_READ_WORDS ) {
+            if ( word.length == len && equalsIgnoreCase(bytes, off, word) ) return true;
+        }
+        for ( final byte[] prefix : NON_READ_PREFIXES ) {
+            if ( prefix.length <= len && equalsIgnoreCase(bytes, off, prefix) ) return true;
+        }
+        return false;
+    }
+
+    private static boolean equalsIgnoreCase(final byte[] bytes, final int off, final byte[] lowerCase) {
+        for ( int i = 0; i < lowerCase.length; i++ ) {
+            final byte b = bytes[off + i];
+            if ( ( b >= 'A' && b <= 'Z' ? b + 32 : b ) != lowerCase[i] ) return false;
+        }
+        return true;
+    }
+
     private static final byte[] INSERT = new byte[] { 'i','n','s','e','r','t' };
 
     @JRubyMethod(name = "insert?", required = 1, meta = true, frame = false)
@@ -3569,7 +4639,7 @@ public class RubyJdbcConnection extends RubyObject {
         return newArrayNoCopy(context, row);
     }
 
-    private static IRubyObject mapRawRow(final ThreadContext context, final Ruby runtime,
+    protected static IRubyObject mapRawRow(final ThreadContext context, final Ruby runtime,
         final ColumnData[] columns, final ResultSet resultSet,
         final RubyJdbcConnection connection) throws SQLException {
 
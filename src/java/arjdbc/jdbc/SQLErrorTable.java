@@ -0,0 +1,80 @@
+package arjdbc.jdbc;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps (expected) SQL failures such as unique constraint violations to ActiveRecord error classes
+ * by SQLState or the vendor error code, thus these get raised as e.g. <code>RecordNotUnique</code>
+ * directly instead of a wrapped <code>JDBCError</code> translated (by message matching) in Ruby.
+ *
+ * Tables are immutable, an adapter extends the {@link #DEFAULT} one with its vendor codes e.g.
+ * <pre>
+ *   SQLErrorTable.DEFAULT.withCode(1062, "RecordNotUnique")
+ * </pre>
+ *
+ * @see RubyJdbcConnection#getErrorTable()
+ */
+public final class SQLErrorTable {
+
+    /**
+     * Standard (SQL:2003) as well as widely used SQLState codes.
+     */
+    public static final SQLErrorTable DEFAULT = new SQLErrorTable(new HashMap<>(), new HashMap<>())
+        .withState("23505", "RecordNotUnique")
+        .withState("23502", "NotNullViolation")
+        .withState("23503", "InvalidForeignKey")
+        .withState("23506", "InvalidForeignKey") // H2 (referenced row missing)
+        .withState("22001", "ValueTooLong")
+        .withState("22003", "RangeError")
+        .withState("40001", "SerializationFailure")
+        .withState("40P01", "Deadlocked") // PostgreSQL
+        .withState("55P03", "LockWaitTimeout") // PostgreSQL
+        .withState("57014", "QueryCanceled"); // PostgreSQL
+
+    private final Map<String, String> states;
+    private final Map<Integer, String> codes;
+
+    private SQLErrorTable(final Map<String, String> states, final Map<Integer, String> codes) {
+        this.states = states;
+        this.codes = codes;
+    }
+
+    /**
+     * @param sqlState the SQLState
+     * @param errorClass (ActiveRecord) error class name
+     * @return a copy of this table with the given mapping
+     */
+    public SQLErrorTable withState(final String sqlState, final String errorClass) {
+        final Map<String, String> states = new HashMap<>(this.states);
+        states.put(sqlState, errorClass);
+        return new SQLErrorTable(states, codes);
+    }
+
+    /**
+     * Vendor codes take precedence over states (drivers tend to report generic states e.g. "23000").
+     * @param errorCode the vendor error code
+     * @param errorClass (ActiveRecord) error class name
+     * @return a copy of this table with the given mapping
+     */
+    public SQLErrorTable withCode(final int errorCode, final String errorClass) {
+        final Map<Integer, String> codes = new HashMap<>(this.codes);
+        codes.put(errorCode, errorClass);
+        return new SQLErrorTable(states, codes);
+    }
+
+    /**
+     * @param exception the failure
+     * @return (ActiveRecord) error class name or null if not mapped
+     */
+    public String lookup(final SQLException exception) {
+        if ( ! codes.isEmpty() ) {
+            final String errorClass = codes.get(exception.getErrorCode());
+            if ( errorClass != null ) return errorClass;
+        }
+        final String sqlState = exception.getSQLState();
+        return sqlState == null ? null : states.get(sqlState);
+    }
+
+}
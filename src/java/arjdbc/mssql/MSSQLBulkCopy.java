@@ -0,0 +1,273 @@
+package arjdbc.mssql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jruby.RubyArray;
+import org.jruby.RubyHash;
+import org.jruby.exceptions.RaiseException;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+
+import static org.jruby.api.Convert.toInt;
+
+/**
+ * Bulk inserts (Ruby) rows using the driver's <code>SQLServerBulkCopy</code>.
+ *
+ * Rows are handed to the driver through a (proxied) <code>ISQLServerBulkRecord</code> that
+ * pulls them (in slices) from the source, thus a lazy source (enumerator) never gets fully
+ * materialized. The driver classes are only looked up (reflectively) when bulk copy gets used.
+ */
+final class MSSQLBulkCopy {
+
+    private static final String BULK_COPY = "com.microsoft.sqlserver.jdbc.SQLServerBulkCopy";
+    private static final String BULK_COPY_OPTIONS = "com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions";
+    private static final String[] BULK_RECORD_INTERFACES = {
+        "com.microsoft.sqlserver.jdbc.ISQLServerBulkData", // 7.4+
+        "com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord"
+    };
+
+    private final MSSQLRubyJdbcConnection jdbcConnection;
+    private final String table;
+    private final String[] columns;
+
+    MSSQLBulkCopy(final MSSQLRubyJdbcConnection jdbcConnection, final String table, final String[] columns) {
+        this.jdbcConnection = jdbcConnection;
+        this.table = table;
+        this.columns = columns;
+    }
+
+    /**
+     * @param context current thread context
+     * @param connection the (SQLServer) connection
+     * @param rows Array or Enumerable of rows (arrays of values in columns order)
+     * @param options (snake_case) options e.g. <code>batch_size: 1000, table_lock: true</code>
+     * @return number of rows handed to the server
+     * @throws SQLException
+     */
+    long writeToServer(final ThreadContext context, final Connection connection,
+                       final IRubyObject rows, final RubyHash options) throws SQLException {
+        final RowSource source = new RowSource(context, rows, describeColumns(connection));
+        try {
+            final Class<?> bulkCopyClass = Class.forName(BULK_COPY, true, connection.getClass().getClassLoader());
+            final Object bulkCopy = bulkCopyClass.getConstructor(Connection.class).newInstance(connection);
+            try {
+                bulkCopyClass.getMethod("setDestinationTableName", String.class).invoke(bulkCopy, quoteTableName(table));
+                final Method addColumnMapping = bulkCopyClass.getMethod("addColumnMapping", int.class, String.class);
+                for ( int i = 0; i < columns.length; i++ ) {
+                    addColumnMapping.invoke(bulkCopy, i + 1, columns[i]);
+                }
+                if ( options != null && ! options.isEmpty() ) {
+                    final Class<?> optionsClass = Class.forName(BULK_COPY_OPTIONS, true, bulkCopyClass.getClassLoader());
+                    bulkCopyClass.getMethod("setBulkCopyOptions", optionsClass).invoke(bulkCopy, newOptions(context, optionsClass, options));
+                }
+
+                final Object record = source.newRecord(bulkCopyClass.getClassLoader());
+                writeToServerMethod(bulkCopyClass, record.getClass()).invoke(bulkCopy, record);
+            }
+            finally {
+                bulkCopyClass.getMethod("close").invoke(bulkCopy);
+            }
+        }
+        catch (InvocationTargetException e) {
+            final Throwable cause = e.getTargetException();
+            if ( cause instanceof SQLException ) throw (SQLException) cause;
+            if ( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+            throw new SQLException(cause);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new SQLException("bulk copy not supported (please use a recent Microsoft JDBC driver): " + e, e);
+        }
+        return source.rowCount;
+    }
+
+    /**
+     * @return (java.sql.Types) type, precision and scale for each of the copied columns
+     */
+    private int[][] describeColumns(final Connection connection) throws SQLException {
+        final StringBuilder sql = new StringBuilder("SELECT TOP 0 ");
+        for ( int i = 0; i < columns.length; i++ ) {
+            if ( i > 0 ) sql.append(", ");
+            sql.append( quoteName(columns[i]) );
+        }
+        sql.append(" FROM ").append( quoteTableName(table) );
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql.toString())) {
+            final ResultSetMetaData metaData = resultSet.getMetaData();
+            final int[][] description = new int[columns.length][];
+            for ( int i = 0; i < columns.length; i++ ) {
+                description[i] = new int[] {
+                    metaData.getColumnType(i + 1), metaData.getPrecision(i + 1), metaData.getScale(i + 1)
+                };
+            }
+            return description;
+        }
+    }
+
+    private static Object newOptions(final ThreadContext context, final Class<?> optionsClass,
+                                     final RubyHash options) throws ReflectiveOperationException {
+        final Object bulkOptions = optionsClass.getConstructor().newInstance();
+        for ( Object entry : options.directEntrySet() ) {
+            final Map.Entry<?, ?> option = (Map.Entry<?, ?>) entry;
+            final String name = option.getKey().toString(); // e.g. :batch_size -> setBatchSize
+            final IRubyObject value = (IRubyObject) option.getValue();
+
+            final StringBuilder setter = new StringBuilder(name.length() + 3).append("set");
+            boolean upcase = true;
+            for ( int i = 0; i < name.length(); i++ ) {
+                final char c = name.charAt(i);
+                if ( c == '_' ) { upcase = true; continue; }
+                setter.append( upcase ? Character.toUpperCase(c) : c ); upcase = false;
+            }
+
+            final Method method = findSetter(optionsClass, setter.toString());
+            if ( method == null ) {
+                throw context.runtime.newArgumentError("unsupported bulk copy option: " + name);
+            }
+            final Class<?> type = method.getParameterTypes()[0];
+            if ( type == boolean.class ) method.invoke(bulkOptions, value.isTrue());
+            else method.invoke(bulkOptions, toInt(context, value));
+        }
+        return bulkOptions;
+    }
+
+    private static Method findSetter(final Class<?> optionsClass, final String name) {
+        for ( Method method : optionsClass.getMethods() ) {
+            if ( method.getName().equals(name) && method.getParameterCount() == 1 ) {
+                final Class<?> type = method.getParameterTypes()[0];
+                if ( type == boolean.class || type == int.class ) return method;
+            }
+        }
+        return null;
+    }
+
+    private static Method writeToServerMethod(final Class<?> bulkCopyClass, final Class<?> recordClass)
+        throws NoSuchMethodException {
+        for ( Method method : bulkCopyClass.getMethods() ) {
+            if ( method.getName().equals("writeToServer") && method.getParameterCount() == 1 ) {
+                final Class<?> type = method.getParameterTypes()[0];
+                if ( type.isInterface() && type.isAssignableFrom(recordClass) ) return method;
+            }
+        }
+        throw new NoSuchMethodException(bulkCopyClass.getName() + ".writeToServer(ISQLServerBulkRecord)");
+    }
+
+    static String quoteTableName(final String name) {
+        if ( name.indexOf('[') != -1 ) return name; // already quoted
+        final StringBuilder quoted = new StringBuilder(name.length() + 4);
+        int start = 0, dot;
+        while ( ( dot = name.indexOf('.', start) ) != -1 ) {
+            quoted.append( quoteName(name.substring(start, dot)) ).append('.');
+            start = dot + 1;
+        }
+        return quoted.append( quoteName(name.substring(start)) ).toString();
+    }
+
+    static String quoteName(final String name) {
+        if ( name.startsWith("[") && name.endsWith("]") ) return name;
+        return '[' + name.replace("]", "]]") + ']';
+    }
+
+    private final class RowSource implements InvocationHandler {
+
+        // Enumerator#next (external iteration) is costly thus rows are pulled a slice at a time
+        private static final int SLICE_SIZE = 1000;
+
+        private final ThreadContext context;
+        private final IRubyObject slices; // enumerator of row slices (responding to next), null for an Array
+        private final int[][] description;
+
+        private RubyArray rows;
+        private int rowIndex = 0;
+        long rowCount = 0;
+        private Object[] current;
+
+        RowSource(final ThreadContext context, final IRubyObject rows, final int[][] description) {
+            this.context = context;
+            if ( rows instanceof RubyArray ) {
+                this.rows = (RubyArray) rows; this.slices = null;
+            }
+            else { // Enumerable#each_slice without a block -> Enumerator
+                this.slices = rows.callMethod(context, "each_slice", context.runtime.newFixnum(SLICE_SIZE));
+            }
+            this.description = description;
+        }
+
+        Object newRecord(final ClassLoader loader) {
+            final List<Class<?>> interfaces = new ArrayList<>(2);
+            for ( String name : BULK_RECORD_INTERFACES ) {
+                try {
+                    interfaces.add( Class.forName(name, false, loader) );
+                }
+                catch (ClassNotFoundException e) { /* older/newer driver */ }
+            }
+            return Proxy.newProxyInstance(loader, interfaces.toArray(new Class<?>[0]), this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            switch ( method.getName() ) {
+                case "next" : return nextRow();
+                case "getRowData" : return current;
+                case "getColumnOrdinals" :
+                    final Set<Integer> ordinals = new LinkedHashSet<>(columns.length);
+                    for ( int i = 1; i <= columns.length; i++ ) ordinals.add(i);
+                    return ordinals;
+                case "getColumnName" : return columns[ (Integer) args[0] - 1 ];
+                case "getColumnType" : return description[ (Integer) args[0] - 1 ][0];
+                case "getPrecision" : return description[ (Integer) args[0] - 1 ][1];
+                case "getScale" : return description[ (Integer) args[0] - 1 ][2];
+                case "isAutoIncrement" : return false;
+                case "hashCode" : return System.identityHashCode(proxy);
+                case "equals" : return proxy == args[0];
+                case "toString" : return "MSSQLBulkCopy.RowSource@" + table;
+            }
+            final Class<?> type = method.getReturnType();
+            if ( type == boolean.class ) return false;
+            if ( type == int.class ) return 0;
+            return null; // e.g. setTimestampWithTimezoneFormat
+        }
+
+        private boolean nextRow() {
+            while ( rows == null || rowIndex >= rows.getLength() ) {
+                if ( slices == null ) return false;
+                try {
+                    rows = slices.callMethod(context, "next").convertToArray(); rowIndex = 0;
+                }
+                catch (RaiseException e) {
+                    if ( context.runtime.getStopIteration().isInstance(e.getException()) ) return false;
+                    throw e;
+                }
+            }
+            final IRubyObject row = rows.eltInternal(rowIndex++);
+
+            final RubyArray values = row.convertToArray();
+            if ( values.getLength() != columns.length ) {
+                throw context.runtime.newArgumentError("row " + (rowCount + 1) + " has " +
+                    values.getLength() + " values but " + columns.length + " columns are being copied");
+            }
+            final Object[] data = new Object[columns.length];
+            for ( int i = 0; i < data.length; i++ ) {
+                data[i] = jdbcConnection.toBulkCopyValue(context, values.eltInternal(i));
+            }
+            current = data;
+            rowCount++;
+            return true;
+        }
+
+    }
+
+}
@@ -52,9 +52,12 @@ import org.jruby.Ruby;
 import org.jruby.RubyArray;
 import org.jruby.RubyBoolean;
 import org.jruby.RubyClass;
+import org.jruby.RubyHash;
 import org.jruby.RubyString;
 import org.jruby.RubyTime;
 import org.jruby.anno.JRubyMethod;
+import org.jruby.ext.date.RubyDate;
+import org.jruby.runtime.Block;
 import org.jruby.runtime.ObjectAllocator;
 import org.jruby.runtime.ThreadContext;
 import org.jruby.runtime.builtin.IRubyObject;
@@ -154,6 +157,7 @@ public class MSSQLRubyJdbcConnection extends RubyJdbcConnection {
     @JRubyMethod(name = "execute", required = 1)
     public IRubyObject execute(final ThreadContext context, final IRubyObject sql) {
         final String query = sqlString(sql);
+        markWrite(sql);
         return withConnection(context, new Callable<IRubyObject>() {
             public IRubyObject call(final Connection connection) throws SQLException {
                 Statement statement = null;
@@ -162,7 +166,8 @@ public class MSSQLRubyJdbcConnection extends RubyJdbcConnection {
 
                     // For DBs that do support multiple statements, lets return the last result set
                     // to be consistent with AR
-                    boolean hasResultSet = doExecute(statement, query);
+                    final Statement executeStatement = statement;
+                    boolean hasResultSet = executeCancellable(context, statement, () -> doExecute(executeStatement, query));
                     int updateCount = statement.getUpdateCount();
 
                     final List<IRubyObject> results = new ArrayList<IRubyObject>();
@@ -204,6 +209,79 @@ public class MSSQLRubyJdbcConnection extends RubyJdbcConnection {
         });
     }
 
+    /**
+     * Executes a batch (e.g. a stored procedure) streaming its results to the block as they arrive,
+     * unlike {@link #execute(ThreadContext, IRubyObject)} no result set gets materialized.
+     *
+     * The block receives <code>(:result_set, column_names)</code> when a result set starts,
+     * <code>(:row, row_hash)</code> for each of its rows and <code>(:update_count, count)</code>
+     * for every update count.
+     * @param context
+     * @param args sql and (optional) binds
+     * @param block
+     * @return number of results (result sets and update counts)
+     */
+    @JRubyMethod(name = "each_result", required = 1, optional = 1)
+    public IRubyObject each_result(final ThreadContext context, final IRubyObject[] args, final Block block) {
+        if ( ! block.isGiven() ) throw context.runtime.newArgumentError("no block given");
+
+        final String query = sqlString(args[0]);
+        final RubyArray binds = args.length > 1 && ! args[1].isNil() ? args[1].convertToArray() : null;
+
+        markWrite(args[0]);
+        // results are yielded as they arrive, the batch can not be re-tried
+        return withConnectionNoRetry(context, connection -> {
+            final Ruby runtime = context.runtime;
+            Statement statement = null;
+            try {
+                boolean hasResultSet;
+                if ( binds == null || binds.isEmpty() ) {
+                    statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    hasResultSet = doExecute(statement, query);
+                }
+                else {
+                    final PreparedStatement prepStatement;
+                    statement = prepStatement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    setStatementParameters(context, connection, prepStatement, binds);
+                    hasResultSet = prepStatement.execute();
+                }
+                int updateCount = hasResultSet ? -1 : statement.getUpdateCount();
+
+                long count = 0;
+                while ( hasResultSet || updateCount != -1 ) {
+                    if ( hasResultSet ) {
+                        // rows must be consumed now, getMoreResults() closes the current result set
+                        final ResultSet resultSet = statement.getResultSet();
+                        final ColumnData[] columns = extractColumns(context, connection, resultSet, false);
+                        final IRubyObject[] columnNames = new IRubyObject[columns.length];
+                        for ( int i = 0; i < columns.length; i++ ) columnNames[i] = cachedString(context, columns[i].getName());
+
+                        block.yieldSpecific(context, runtime.newSymbol("result_set"), newArray(context, columnNames));
+                        final IRubyObject row = runtime.newSymbol("row");
+                        while ( resultSet.next() ) {
+                            block.yieldSpecific(context, row, mapRawRow(context, runtime, columns, resultSet, this));
+                        }
+                    }
+                    else {
+                        block.yieldSpecific(context, runtime.newSymbol("update_count"), runtime.newFixnum(updateCount));
+                    }
+                    count++;
+
+                    hasResultSet = statement.getMoreResults();
+                    updateCount = hasResultSet ? -1 : statement.getUpdateCount();
+                }
+                return runtime.newFixnum(count);
+            }
+            catch (final SQLException e) {
+                debugErrorSQL(context, query);
+                throw e;
+            }
+            finally {
+                close(statement);
+            }
+        });
+    }
+
     /**
      * Executes an INSERT SQL statement
      * @param context
@@ -215,18 +293,7 @@ public class MSSQLRubyJdbcConnection extends RubyJdbcConnection {
     @Override
     @JRubyMethod(name = "execute_insert_pk", required = 2)
     public IRubyObject execute_insert_pk(final ThreadContext context, final IRubyObject sql, final IRubyObject pk) {
-
-        // MSSQL does not like composite primary keys here so chop it if there is more than one column
-        IRubyObject modifiedPk = pk;
-
-        if (pk instanceof RubyArray) {
-            RubyArray ary = (RubyArray) pk;
-            if (ary.size() > 0) {
-                modifiedPk = ary.eltInternal(0);
-            }
-        }
-
-        return super.execute_insert_pk(context, sql, modifiedPk);
+        return super.execute_insert_pk(context, sql, singlePk(pk));
     }
 
     /**
@@ -242,17 +309,75 @@ public class MSSQLRubyJdbcConnection extends RubyJdbcConnection {
     @JRubyMethod(name = "execute_insert_pk", required = 3)
     public IRubyObject execute_insert_pk(final ThreadContext context, final IRubyObject sql, final IRubyObject binds,
                                          final IRubyObject pk) {
-        // MSSQL does not like composite primary keys here so chop it if there is more than one column
-        IRubyObject modifiedPk = pk;
+        return super.execute_insert_pk(context, sql, binds, singlePk(pk));
+    }
+
+    @Override
+    @JRubyMethod(name = "execute_insert_id", required = 2)
+    public IRubyObject execute_insert_id(final ThreadContext context, final IRubyObject sql, final IRubyObject pk) {
+        return super.execute_insert_id(context, sql, singlePk(pk));
+    }
 
+    @Override
+    @JRubyMethod(name = "execute_insert_id", required = 3)
+    public IRubyObject execute_insert_id(final ThreadContext context, final IRubyObject sql, final IRubyObject binds,
+                                         final IRubyObject pk) {
+        return super.execute_insert_id(context, sql, binds, singlePk(pk));
+    }
+
+    // MSSQL does not like composite primary keys here so chop it if there is more than one column
+    private static IRubyObject singlePk(final IRubyObject pk) {
         if (pk instanceof RubyArray) {
             RubyArray ary = (RubyArray) pk;
-            if (ary.size() > 0) {
-                modifiedPk = ary.eltInternal(0);
-            }
+            if (ary.size() > 0) return ary.eltInternal(0);
+        }
+        return pk;
+    }
+
+    /**
+     * Bulk inserts rows using SQLServerBulkCopy, rows are pulled (lazily) as the driver sends them.
+     * @param context
+     * @param table destination table name (might be schema qualified)
+     * @param columns column names (in the order of values in a row)
+     * @param rows an Array or Enumerable of rows (arrays of values)
+     * @param options e.g. <code>batch_size: 5000, table_lock: true, bulk_copy_timeout: 60</code>
+     * @return number of copied rows
+     */
+    @JRubyMethod(name = "bulk_copy", required = 3, optional = 1)
+    public IRubyObject bulk_copy(final ThreadContext context, final IRubyObject[] args) {
+        final String table = args[0].asJavaString();
+        final RubyArray columnNames = args[1].convertToArray();
+        final String[] columns = new String[columnNames.getLength()];
+        for ( int i = 0; i < columns.length; i++ ) {
+            columns[i] = columnNames.eltInternal(i).asJavaString();
         }
+        final IRubyObject rows = args[2];
+        final RubyHash options = args.length > 3 && ! args[3].isNil() ? args[3].convertToHash() : null;
+
+        markWrite(null);
+        // rows get consumed as they're sent, the copy can not be re-tried
+        return withConnectionNoRetry(context, connection -> {
+            final MSSQLBulkCopy bulkCopy = new MSSQLBulkCopy(this, table, columns);
+            return context.runtime.newFixnum( bulkCopy.writeToServer(context, connection, rows, options) );
+        });
+    }
 
-        return super.execute_insert_pk(context, sql, binds, modifiedPk);
+    /**
+     * Converts a (type-casted) Ruby value into a Java object SQLServerBulkCopy accepts.
+     */
+    Object toBulkCopyValue(final ThreadContext context, final IRubyObject value) {
+        if ( value.isNil() ) return null;
+        if ( value instanceof RubyString ) return value.toString();
+        if ( value instanceof RubyTime ) {
+            final RubyTime time = (RubyTime) value;
+            final DateTime dateTime = dateTimeInDefaultTimeZone(context, time.getDateTime());
+            // wall-clock time (in the default zone) as bulk copy does not take a calendar
+            final Timestamp timestamp = new Timestamp(dateTime.withZoneRetainFields(DateTimeZone.getDefault()).getMillis());
+            if ( time.getNSec() > 0 ) timestamp.setNanos((int) (timestamp.getNanos() + time.getNSec()));
+            return timestamp;
+        }
+        if ( value instanceof RubyDate ) return ((RubyDate) value).toJava(Date.class);
+        return value.toJava(Object.class);
     }
 
     @Override
@@ -0,0 +1,144 @@
+package arjdbc.mysql;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jruby.RubyArray;
+import org.jruby.RubyBoolean;
+import org.jruby.RubyFloat;
+import org.jruby.RubyInteger;
+import org.jruby.RubyString;
+import org.jruby.exceptions.RaiseException;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+import org.jruby.util.ByteList;
+
+/**
+ * Feeds (Ruby) rows to <code>LOAD DATA LOCAL INFILE</code> in the (default) text format
+ * expected by the server: fields and lines separated with the given terminators, NULL as \N
+ * and '\' as the escape character.
+ *
+ * Rows are pulled (in slices) as the driver reads the stream, thus a lazy source (enumerator)
+ * never gets fully materialized. Values other than strings, numbers, booleans and nil are
+ * converted using the (optional) type-caster e.g. the adapter's <code>type_cast</code> method.
+ */
+final class LoadDataInputStream extends InputStream {
+
+    private static final byte ESCAPE = '\\';
+    private static final byte[] NULL = new byte[] { '\\', 'N' };
+
+    // Enumerator#next (external iteration) is costly thus rows are pulled a slice at a time
+    private static final int SLICE_SIZE = 1000;
+
+    private final ThreadContext context;
+    private final IRubyObject slices; // enumerator of row slices (responding to next), null for an Array
+    private final IRubyObject typeCaster; // responding to call (or null)
+    private final byte[] fieldTerminator;
+    private final byte[] lineTerminator;
+
+    private RubyArray rows;
+    private int rowIndex = 0;
+    private boolean done;
+
+    private final ByteList buffer = new ByteList(1024);
+    private int position = 0;
+
+    LoadDataInputStream(final ThreadContext context, final IRubyObject source, final IRubyObject typeCaster,
+                        final byte[] fieldTerminator, final byte[] lineTerminator) {
+        this.context = context;
+        if ( source instanceof RubyArray ) {
+            this.rows = (RubyArray) source; this.slices = null;
+        }
+        else { // Enumerable#each_slice without a block -> Enumerator
+            this.slices = source.callMethod(context, "each_slice", context.runtime.newFixnum(SLICE_SIZE));
+        }
+        this.typeCaster = typeCaster == null || typeCaster.isNil() ? null : typeCaster;
+        this.fieldTerminator = fieldTerminator;
+        this.lineTerminator = lineTerminator;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if ( ! fill() ) return -1;
+        return buffer.get(position++) & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int off, final int len) throws IOException {
+        if ( len == 0 ) return 0;
+        if ( ! fill() ) return -1;
+        final int count = Math.min(len, buffer.getRealSize() - position);
+        System.arraycopy(buffer.unsafeBytes(), buffer.getBegin() + position, bytes, off, count);
+        position += count;
+        return count;
+    }
+
+    private boolean fill() {
+        while ( position >= buffer.getRealSize() ) {
+            if ( done ) return false;
+            buffer.setRealSize(0); position = 0;
+
+            final IRubyObject row = nextRow();
+            if ( row == null ) { done = true; return false; }
+            appendRow(row);
+        }
+        return true;
+    }
+
+    private IRubyObject nextRow() {
+        while ( rows == null || rowIndex >= rows.getLength() ) {
+            if ( slices == null ) return null;
+            try {
+                rows = slices.callMethod(context, "next").convertToArray(); rowIndex = 0;
+            }
+            catch (RaiseException e) {
+                if ( context.runtime.getStopIteration().isInstance(e.getException()) ) return null;
+                throw e;
+            }
+        }
+        return rows.eltInternal(rowIndex++);
+    }
+
+    private void appendRow(final IRubyObject row) {
+        if ( row instanceof RubyString ) { // pre-formatted line
+            buffer.append(((RubyString) row).getByteList());
+            return;
+        }
+        final RubyArray values = row.convertToArray();
+        for ( int i = 0; i < values.getLength(); i++ ) {
+            if ( i > 0 ) buffer.append(fieldTerminator);
+            appendValue(values.eltInternal(i));
+        }
+        buffer.append(lineTerminator);
+    }
+
+    private void appendValue(IRubyObject value) {
+        if ( typeCaster != null && ! isPlainValue(value) ) value = typeCaster.callMethod(context, "call", value);
+        if ( value.isNil() ) { buffer.append(NULL); return; }
+        if ( value instanceof RubyBoolean ) {
+            buffer.append(value.isTrue() ? '1' : '0'); return;
+        }
+        final ByteList bytes = value.asString().getByteList();
+        final byte fieldStart = fieldTerminator.length > 0 ? fieldTerminator[0] : ESCAPE;
+        final byte lineStart = lineTerminator.length > 0 ? lineTerminator[0] : ESCAPE;
+        for ( int i = 0; i < bytes.getRealSize(); i++ ) {
+            final byte b = (byte) bytes.get(i);
+            switch ( b ) {
+                case 0 : buffer.append(ESCAPE).append('0'); continue;
+                case '\n' : buffer.append(ESCAPE).append('n'); continue;
+                case '\r' : buffer.append(ESCAPE).append('r'); continue;
+                case '\t' : buffer.append(ESCAPE).append('t'); continue;
+                case ESCAPE : buffer.append(ESCAPE).append(ESCAPE); continue;
+            }
+            // the escape followed by a terminator's (first) char is read as a literal
+            if ( b == fieldStart || b == lineStart ) buffer.append(ESCAPE);
+            buffer.append(b);
+        }
+    }
+
+    private static boolean isPlainValue(final IRubyObject value) {
+        return value instanceof RubyString || value instanceof RubyInteger || value instanceof RubyFloat ||
+                value instanceof RubyBoolean || value.isNil();
+    }
+
+}
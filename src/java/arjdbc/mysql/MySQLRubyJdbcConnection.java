@@ -28,27 +28,42 @@ package arjdbc.mysql;
 import arjdbc.jdbc.Callable;
 import arjdbc.jdbc.DriverWrapper;
 import arjdbc.jdbc.RubyJdbcConnection;
+import arjdbc.jdbc.SQLErrorTable;
 import arjdbc.util.DateTimeUtils;
+import org.jcodings.Encoding;
+import org.jcodings.specific.USASCIIEncoding;
+import org.jcodings.specific.UTF8Encoding;
 import org.jruby.Ruby;
 import org.jruby.RubyBoolean;
+import org.jruby.RubyArray;
 import org.jruby.RubyClass;
 import org.jruby.anno.JRubyMethod;
 import org.jruby.exceptions.RaiseException;
+import org.jruby.runtime.Block;
 import org.jruby.runtime.ObjectAllocator;
 import org.jruby.runtime.ThreadContext;
 import org.jruby.runtime.builtin.IRubyObject;
+import org.jruby.util.IOInputStream;
 import org.jruby.util.SafePropertyAccessor;
+import org.jruby.util.TypeConverter;
 
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.Arrays;
+import java.util.Locale;
 
+import static arjdbc.util.StringHelper.defaultInternalEncoding;
 import static org.jruby.api.Create.newEmptyString;
 import static org.jruby.api.Create.newString;
 
@@ -95,6 +110,163 @@ public class MySQLRubyJdbcConnection extends RubyJdbcConnection {
         });
     }
 
+    // Integer.MIN_VALUE is the (row-by-row) streaming hint understood by Connector/J and MariaDB,
+    // a positive value is used by drivers with cursor fetching on e.g. `useCursorFetch=true`
+    private static final int STREAM_FETCH_SIZE = SafePropertyAccessor.getInt("arjdbc.mysql.stream_fetch_size", Integer.MIN_VALUE);
+
+    private transient volatile boolean streaming;
+
+    /**
+     * Executes a query yielding a <code>Hash</code> (column name to value) for each row as it
+     * arrives from the server, the result is never buffered (by the driver nor here).
+     *
+     * NOTE: while the stream is open MySQL does not allow any other statement to be executed on
+     * the same connection, doing so (e.g. from the block) raises an error.
+     *
+     * @param context current thread context
+     * @param args (sql) or (sql, binds)
+     * @param block yields each row hash
+     * @return number of rows yielded
+     */
+    @JRubyMethod(name = "stream_each", required = 1, optional = 1)
+    public IRubyObject stream_each(final ThreadContext context, final IRubyObject[] args, final Block block) {
+        if ( ! block.isGiven() ) throw context.runtime.newArgumentError("no block given");
+
+        final String query = sqlString(args[0]);
+        final RubyArray binds = args.length > 1 && ! args[1].isNil() ?
+                (RubyArray) TypeConverter.checkArrayType(context, args[1]) : null;
+
+        // rows are yielded as they arrive thus re-trying would yield (some) rows twice
+        return withConnectionNoRetry(context, connection -> {
+            Statement statement = null;
+            try {
+                final boolean hasResult;
+                if ( binds == null || binds.isEmpty() ) {
+                    statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(STREAM_FETCH_SIZE);
+                    hasResult = statement.execute(query);
+                }
+                else {
+                    final PreparedStatement prepStatement;
+                    statement = prepStatement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(STREAM_FETCH_SIZE);
+                    setStatementParameters(context, connection, prepStatement, binds);
+                    hasResult = prepStatement.execute();
+                }
+
+                long count = 0;
+                if ( hasResult ) {
+                    streaming = true;
+                    count = yieldRawRows(context, connection, statement.getResultSet(), block);
+                }
+                return context.runtime.newFixnum(count);
+            }
+            catch (final SQLException e) {
+                debugErrorSQL(context, query);
+                throw e;
+            }
+            finally {
+                try { close(statement); } // closing drains rows left un-read (e.g. the block broke out)
+                finally { streaming = false; }
+            }
+        });
+    }
+
+    @JRubyMethod(name = "streaming?")
+    public IRubyObject streaming_p(final ThreadContext context) {
+        return context.runtime.newBoolean(streaming);
+    }
+
+    /**
+     * Executes a <code>LOAD DATA LOCAL INFILE ...</code> statement with the (local) file data
+     * streamed from the given source, using the driver's local infile input stream hook.
+     *
+     * The source is either an IO (anything responding to <code>read</code>) with already formatted
+     * data or an Enumerable of rows (arrays of values), formatted using the given terminators
+     * with '\' as the escape character (make sure the statement's FIELDS/LINES clauses match).
+     * Row values other than strings, numbers, booleans or nil are converted using the type-caster.
+     *
+     * NOTE: the driver needs to be allowed to do local loads e.g. allowLoadLocalInfile=true
+     *
+     * @param context current thread context
+     * @param args (sql, source) or (sql, source, fields_terminated_by, lines_terminated_by, type_caster)
+     * @return number of loaded rows (update count)
+     */
+    @JRubyMethod(name = "load_data_local_infile", required = 2, optional = 3)
+    public IRubyObject load_data_local_infile(final ThreadContext context, final IRubyObject[] args) {
+        final String query = sqlString(args[0]);
+        final IRubyObject source = args[1];
+        final byte[] fieldTerminator = args.length > 2 ? args[2].convertToString().getBytes() : new byte[] { '\t' };
+        final byte[] lineTerminator = args.length > 3 ? args[3].convertToString().getBytes() : new byte[] { '\n' };
+        final IRubyObject typeCaster = args.length > 4 ? args[4] : null;
+
+        markWrite(null);
+        // the source gets consumed as the statement executes, it can not be re-tried
+        return withConnectionNoRetry(context, connection -> {
+            Statement statement = null;
+            try {
+                statement = connection.createStatement();
+                final InputStream input;
+                if ( source.respondsTo("read") ) {
+                    input = new IOInputStream(source); // reads as the driver sends the data
+                }
+                else {
+                    input = new LoadDataInputStream(context, source, typeCaster, fieldTerminator, lineTerminator);
+                }
+                setLocalInfileInputStream(context, statement, input);
+                return context.runtime.newFixnum(statement.executeUpdate(query));
+            }
+            catch (final SQLException e) {
+                debugErrorSQL(context, query);
+                throw e;
+            }
+            finally { close(statement); }
+        });
+    }
+
+    private static final String[] LOCAL_INFILE_STATEMENTS = new String[] {
+        "com.mysql.cj.jdbc.JdbcStatement", // Connector/J 8.x
+        "com.mysql.jdbc.Statement", // Connector/J 5.x
+        "org.mariadb.jdbc.Statement", // MariaDB 3.x
+        "org.mariadb.jdbc.MariaDbStatement" // MariaDB 1.x/2.x
+    };
+
+    private static void setLocalInfileInputStream(final ThreadContext context,
+        final Statement statement, final InputStream input) throws SQLException {
+        final ClassLoader loader = statement.getClass().getClassLoader();
+        for ( final String name : LOCAL_INFILE_STATEMENTS ) {
+            final Class<?> klass;
+            try {
+                klass = Class.forName(name, false, loader);
+            }
+            catch (ClassNotFoundException e) { continue; }
+
+            if ( ! statement.isWrapperFor(klass) ) continue;
+            try {
+                klass.getMethod("setLocalInfileInputStream", InputStream.class).invoke(statement.unwrap(klass), input);
+                return;
+            }
+            catch (NoSuchMethodException | IllegalAccessException e) {
+                debugMessage(context.runtime, e);
+            }
+            catch (InvocationTargetException e) {
+                final Throwable target = e.getTargetException();
+                if ( target instanceof SQLException ) throw (SQLException) target;
+                debugMessage(context.runtime, target);
+            }
+        }
+        throw context.runtime.newRaiseException(getJDBCError(context),
+                "driver does not support streaming LOAD DATA LOCAL INFILE data (" + statement.getClass().getName() + ")");
+    }
+
+    @Override
+    protected void checkConnectionUsable(final ThreadContext context) throws RaiseException {
+        if ( streaming ) {
+            throw context.runtime.newRaiseException(getJDBCError(context),
+                    "can not execute statements on this connection while a streaming result is open (see #stream_each)");
+        }
+    }
+
     @Override
     protected DriverWrapper newDriverWrapper(final ThreadContext context, final String driver) {
         DriverWrapper driverWrapper = super.newDriverWrapper(context, driver);
@@ -108,17 +280,20 @@ public class MySQLRubyJdbcConnection extends RubyJdbcConnection {
                 throw context.runtime.newRaiseException(errorClass,
                         "MySQL adapter requires driver >= 5.0 got: " + major + "." + minor);
             }
-            if ( major == 5 && minor < 1 ) { // need 5.1 for JDBC 4.0
+        }
+
+        return driverWrapper;
+    }
+
+    @Override
+    protected void configureDriverDefaults(final ThreadContext context, final DriverWrapper driverWrapper) {
+        final java.sql.Driver jdbcDriver = driverWrapper.getDriverInstance();
+        if ( jdbcDriver.getClass().getName().startsWith("com.mysql.jdbc.") ) {
+            if ( jdbcDriver.getMajorVersion() == 5 && jdbcDriver.getMinorVersion() < 1 ) { // need 5.1 for JDBC 4.0
                 // lightweight validation query: "/* ping */ SELECT 1"
                 setConfigValueIfNotSet(context, "connection_alive_sql", newString(context, "/* ping */ SELECT 1"));
             }
-            driverAdapter = new MySQLDriverAdapter(); // short-circuit
-        }
-        else {
-            driverAdapter = new DriverAdapter(); // short-circuit (MariaDB)
         }
-
-        return driverWrapper;
     }
 
     @JRubyMethod(name = "ping")
@@ -132,55 +307,125 @@ public class MySQLRubyJdbcConnection extends RubyJdbcConnection {
         return context.runtime.newBoolean(isConnectionValid(context, connection));
     }
 
-    private static transient Class MYSQL_CONNECTION;
-    private static transient Boolean MYSQL_CONNECTION_FOUND;
+    // allows to turn off the raw (string column) byte[] extraction
+    private static final boolean STRING_BYTES = SafePropertyAccessor.getBoolean("arjdbc.mysql.string_bytes", true);
+
+    private final transient DriverAdapter driverAdapter = new DriverAdapter();
+
+    private static class DriverAdapter {
 
-    private static boolean checkMySQLConnection(final Connection connection) {
-        Class mysqlDriverIface = MYSQL_CONNECTION;
-        if (mysqlDriverIface == null && MYSQL_CONNECTION_FOUND == null) {
+        // encodings of the last result's columns (string bytes as sent by the server), null entries if unknown
+        // the result is only weakly referenced, thus it (and its statement) is not kept around after use
+        private WeakReference<ResultSet> encodingsResult;
+        private Encoding[] encodings;
+        private Class<?> metaDataClass; private Method columnEncoding;
+
+        /**
+         * The encoding is what the driver decodes the column with (for getString) thus it follows charset
+         * changes within the session e.g. <code>SET NAMES</code>, resolved once per result.
+         * @return the encoding of the column's raw bytes (as returned by getBytes), null if unknown
+         */
+        Encoding columnEncoding(final ResultSet resultSet, final int column) throws SQLException {
+            if ( encodingsResult == null || encodingsResult.get() != resultSet ) {
+                encodings = resolveEncodings(resultSet.getMetaData());
+                encodingsResult = new WeakReference<>(resultSet);
+            }
+            return column <= encodings.length ? encodings[column - 1] : null;
+        }
+
+        private Encoding[] resolveEncodings(final ResultSetMetaData metaData) throws SQLException {
+            final Encoding[] encodings = new Encoding[metaData.getColumnCount()];
+            final Class<?> klass = metaData.getClass();
+            if ( klass.getName().startsWith("org.mariadb.") ) { // MariaDB's driver always decodes text as UTF-8
+                Arrays.fill(encodings, UTF8Encoding.INSTANCE);
+                return encodings;
+            }
+            if ( klass != metaDataClass ) { // Connector/J ResultSetMetaData#getColumnCharacterEncoding(int)
+                try {
+                    columnEncoding = klass.getMethod("getColumnCharacterEncoding", int.class);
+                }
+                catch (NoSuchMethodException e) { columnEncoding = null; }
+                metaDataClass = klass;
+            }
+            if ( columnEncoding == null ) return encodings;
             try {
-                MYSQL_CONNECTION = Class.forName("com.mysql.jdbc.MySQLConnection", false, MySQLRubyJdbcConnection.class.getClassLoader());
-                MYSQL_CONNECTION_FOUND = Boolean.TRUE;
+                for ( int i = 0; i < encodings.length; i++ ) {
+                    encodings[i] = mapCharsetToEncoding((String) columnEncoding.invoke(metaData, i + 1));
+                }
             }
-            catch (ClassNotFoundException ex) {
-                MYSQL_CONNECTION_FOUND = Boolean.FALSE;
+            catch (IllegalAccessException|InvocationTargetException e) {
+                Arrays.fill(encodings, null); // use getString
             }
-            mysqlDriverIface = MYSQL_CONNECTION;
-        }
-        if (mysqlDriverIface == null) return false;
-        try {
-            return connection.isWrapperFor(mysqlDriverIface);
+            return encodings;
         }
-        catch (SQLException ex) {
-            return false;
-        }
-    }
 
-    private boolean usingMySQLDriver() {
-        return checkMySQLConnection(getConnection(true));
     }
 
-    private transient DriverAdapter driverAdapter;
+    // only the (Java) charsets we're sure of a 1-1 mapping
+    private static Encoding mapCharsetToEncoding(final String charset) {
+        if ( charset == null ) return null;
+        switch ( charset.toUpperCase(Locale.ENGLISH) ) {
+            case "UTF-8" : case "UTF8" :
+                return UTF8Encoding.INSTANCE;
+            case "US-ASCII" : case "ASCII" :
+                return USASCIIEncoding.INSTANCE;
+            default:
+                return null;
+        }
+    }
 
-    // NOTE: currently un-used but we'll need it if we attempt to handle fast string extraction
-    private DriverAdapter getDriverAdapter() {
-        if (driverAdapter == null) {
-            driverAdapter = usingMySQLDriver() ? new MySQLDriverAdapter() : new DriverAdapter();
+    /**
+     * 'fast' string extraction - when the column's charset matches the expected string encoding
+     * the raw byte[] gets wrapped as is (no String decoding + re-encoding).
+     */
+    @Override
+    protected IRubyObject stringToRuby(final ThreadContext context, final Ruby runtime,
+        final ResultSet resultSet, final int column) throws SQLException {
+        if ( STRING_BYTES ) {
+            final Encoding encoding = driverAdapter.columnEncoding(resultSet, column);
+            if ( encoding != null && encoding == defaultInternalEncoding(runtime) ) {
+                return bytesToRubyString(context, runtime, resultSet, column);
+            }
         }
-        return driverAdapter;
+        return super.stringToRuby(context, runtime, resultSet, column);
     }
 
-    private class DriverAdapter { // sensible driver without quirks (MariaDB)
-        // left in for encoding specific extraction from driver - would allow us 'fast' string byte[] extraction
+    @Override
+    protected boolean doExecute(final Statement statement, final String query) throws SQLException {
+        return statement.execute(query, Statement.RETURN_GENERATED_KEYS);
     }
 
-    private class MySQLDriverAdapter extends DriverAdapter { // Connector/J (bloated) 5.x version
-        // left in for encoding specific extraction from driver - would allow us 'fast' string byte[] extraction
+    // MySQL reports generic SQLStates (e.g. 23000) - error codes as mapped by AR's AbstractMysqlAdapter
+    private static final SQLErrorTable ERROR_TABLE = SQLErrorTable.DEFAULT
+        .withCode(1062, "RecordNotUnique") // ER_DUP_ENTRY
+        .withCode(1048, "NotNullViolation") // ER_NOT_NULL_VIOLATION
+        .withCode(1364, "NotNullViolation") // ER_NO_DEFAULT_FOR_FIELD
+        .withCode(1216, "InvalidForeignKey") // ER_NO_REFERENCED_ROW
+        .withCode(1217, "InvalidForeignKey") // ER_ROW_IS_REFERENCED
+        .withCode(1451, "InvalidForeignKey") // ER_ROW_IS_REFERENCED_2
+        .withCode(1452, "InvalidForeignKey") // ER_NO_REFERENCED_ROW_2
+        .withCode(1406, "ValueTooLong") // ER_DATA_TOO_LONG
+        .withCode(1264, "RangeError") // ER_OUT_OF_RANGE
+        .withCode(1213, "Deadlocked") // ER_LOCK_DEADLOCK
+        .withCode(1205, "LockWaitTimeout") // ER_LOCK_WAIT_TIMEOUT
+        .withCode(1317, "QueryCanceled") // ER_QUERY_INTERRUPTED
+        .withCode(3024, "StatementTimeout"); // ER_QUERY_TIMEOUT
+
+    @Override
+    protected SQLErrorTable getErrorTable() {
+        return ERROR_TABLE;
     }
 
     @Override
-    protected boolean doExecute(final Statement statement, final String query) throws SQLException {
-        return statement.execute(query, Statement.RETURN_GENERATED_KEYS);
+    protected boolean isCancelled(final Exception exception) {
+        if ( exception instanceof SQLException ) {
+            switch ( ((SQLException) exception).getErrorCode() ) {
+                case 1317: // ER_QUERY_INTERRUPTED
+                case 3024: // ER_QUERY_TIMEOUT
+                    return true;
+            }
+        }
+        return super.isCancelled(exception);
     }
 
     @Override
@@ -190,6 +435,9 @@ public class MySQLRubyJdbcConnection extends RubyJdbcConnection {
             final int value = resultSet.getInt(column);
             return resultSet.wasNull() ? context.nil : runtime.newFixnum(value);
         }
+        if ( type == Types.LONGVARCHAR ) { // TEXT - no need to go through a Reader
+            return stringToRuby(context, runtime, resultSet, column);
+        }
         return super.jdbcToRuby(context, runtime, column, type, resultSet);
     }
 
@@ -37,6 +37,8 @@ import arjdbc.util.CallResultSet;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -45,10 +47,15 @@ import java.sql.SQLException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSetMetaData;
 import java.sql.Statement;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Types;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.jruby.Ruby;
@@ -59,8 +66,10 @@ import org.jruby.anno.JRubyMethod;
 import org.jruby.runtime.ObjectAllocator;
 import org.jruby.runtime.ThreadContext;
 import org.jruby.runtime.builtin.IRubyObject;
+import org.jruby.util.SafePropertyAccessor;
 
 import static org.jruby.api.Convert.asFixnum;
+import static org.jruby.api.Convert.toInt;
 import static org.jruby.api.Create.allocArray;
 import static org.jruby.api.Create.newString;
 
@@ -93,26 +102,159 @@ public class OracleRubyJdbcConnection extends RubyJdbcConnection {
         }
     };
 
+    /**
+     * Number of values fetched (and cached) at once by {@link #next_sequence_value(ThreadContext, IRubyObject)},
+     * should not exceed the sequence's INCREMENT BY/CACHE settings for ids to stay (mostly) ordered.
+     */
+    private static final int SEQUENCE_PREFETCH = Math.max(1, SafePropertyAccessor.getInt("arjdbc.oracle.sequence_prefetch", 1));
+
+    private final Map<String, SequenceValues> sequenceValues = new HashMap<>(8);
+
+    private static final class SequenceValues {
+        final long[] values; int next;
+        SequenceValues(long[] values) { this.values = values; }
+    }
+
     @JRubyMethod(name = "next_sequence_value", required = 1)
     public IRubyObject next_sequence_value(final ThreadContext context, final IRubyObject sequence) {
-        return withConnection(context, new Callable<IRubyObject>() {
-            public IRubyObject call(final Connection connection) throws SQLException {
-                Statement statement = null; ResultSet valSet = null;
-                try {
-                    statement = connection.createStatement();
-                    valSet = statement.executeQuery("SELECT "+ sequence +".NEXTVAL id FROM dual");
-                    if ( ! valSet.next() ) return context.nil;
-                    return context.runtime.newFixnum( valSet.getLong(1) );
-                }
-                catch (final SQLException e) {
-                    debugMessage(context.runtime, "failed to get " + sequence + ".NEXTVAL : " + e.getMessage());
-                    throw e;
-                }
-                finally { close(valSet); close(statement); }
+        final String name = sequence.toString();
+        synchronized (sequenceValues) {
+            final SequenceValues cached = sequenceValues.get(name);
+            if ( cached != null && cached.next < cached.values.length ) {
+                return context.runtime.newFixnum( cached.values[ cached.next++ ] );
+            }
+        }
+
+        final long[] values = withConnection(context, connection -> selectSequenceValues(context, connection, name, SEQUENCE_PREFETCH));
+        if ( values.length == 0 ) return context.nil;
+        if ( values.length > 1 ) {
+            final SequenceValues cached = new SequenceValues(values); cached.next = 1;
+            synchronized (sequenceValues) { sequenceValues.put(name, cached); }
+        }
+        return context.runtime.newFixnum( values[0] );
+    }
+
+    private void clearSequenceValues() {
+        synchronized (sequenceValues) { sequenceValues.clear(); }
+    }
+
+    @Override
+    @JRubyMethod(name = "disconnect!")
+    public synchronized IRubyObject disconnect(final ThreadContext context) {
+        clearSequenceValues(); // pre-fetched values do not out-live the session
+        return super.disconnect(context);
+    }
+
+    @Override
+    @JRubyMethod(name = "reconnect!")
+    public synchronized IRubyObject reconnect(final ThreadContext context) {
+        clearSequenceValues();
+        return super.reconnect(context);
+    }
+
+    /**
+     * Fetches the given number of (NEXTVAL) sequence values in a single round-trip.
+     * @param context
+     * @param sequence the (quoted) sequence name
+     * @param count number of values
+     * @return an array of integers
+     */
+    @JRubyMethod(name = "next_sequence_values", required = 2)
+    public IRubyObject next_sequence_values(final ThreadContext context, final IRubyObject sequence, final IRubyObject count) {
+        final String name = sequence.toString();
+        final int size = toInt(context, count);
+        if ( size <= 0 ) return RubyArray.newEmptyArray(context.runtime);
+
+        final long[] values = withConnection(context, connection -> selectSequenceValues(context, connection, name, size));
+        final RubyArray result = allocArray(context, values.length);
+        for ( long value : values ) result.append(context, asFixnum(context, value));
+        return result;
+    }
+
+    private long[] selectSequenceValues(final ThreadContext context, final Connection connection,
+        final String sequence, final int count) throws SQLException {
+        final String sql = count == 1 ? "SELECT " + sequence + ".NEXTVAL id FROM dual" :
+            "SELECT " + sequence + ".NEXTVAL id FROM dual CONNECT BY LEVEL <= " + count;
+        Statement statement = null; ResultSet valSet = null;
+        try {
+            statement = connection.createStatement();
+            if ( count > 1 ) statement.setFetchSize(count);
+            valSet = statement.executeQuery(sql);
+            final long[] values = new long[count]; int i = 0;
+            while ( i < count && valSet.next() ) values[i++] = valSet.getLong(1);
+            return i == count ? values : Arrays.copyOf(values, i);
+        }
+        catch (final SQLException e) {
+            debugMessage(context.runtime, "failed to get " + sequence + ".NEXTVAL : " + e.getMessage());
+            throw e;
+        }
+        finally { close(valSet); close(statement); }
+    }
+
+    /**
+     * Executes a DML statement ending with <code>RETURNING column INTO ?</code> (the last parameter),
+     * returning the values for all of the affected rows in one round-trip (e.g. for a multi-row UPDATE).
+     * @param context
+     * @param sql
+     * @param binds values to bind (excluding the returning parameter)
+     * @return an array of returned values (as strings)
+     */
+    @JRubyMethod(name = "execute_returning", required = 2)
+    public IRubyObject execute_returning(final ThreadContext context, final IRubyObject sql, final IRubyObject binds) {
+        final String query = sqlString(sql);
+        final RubyArray bindsArray = binds.isNil() ? RubyArray.newEmptyArray(context.runtime) : binds.convertToArray();
+        markWrite(null);
+        return withConnection(context, connection -> {
+            PreparedStatement statement = null; ResultSet returned = null;
+            try {
+                statement = connection.prepareStatement(query);
+                setStatementParameters(context, connection, statement, bindsArray);
+                final Class<?> oracleStatementClass = oraclePreparedStatementClass(statement);
+                final Object oracleStatement = statement.unwrap(oracleStatementClass);
+                invoke(oracleStatementClass, oracleStatement, "registerReturnParameter",
+                    new Class<?>[] { int.class, int.class }, bindsArray.getLength() + 1, Types.VARCHAR);
+                statement.executeUpdate();
+                returned = (ResultSet) invoke(oracleStatementClass, oracleStatement, "getReturnResultSet", new Class<?>[0]);
+
+                final RubyArray values = allocArray(context, 8);
+                while ( returned.next() ) values.append(context, stringToRuby(context, context.runtime, returned, 1));
+                return values;
+            }
+            catch (final SQLException e) {
+                debugErrorSQL(context, query);
+                throw e;
             }
+            finally { close(returned); close(statement); }
         });
     }
 
+    private static Class<?> oraclePreparedStatementClass(final Statement statement) throws SQLException {
+        try {
+            return Class.forName("oracle.jdbc.OraclePreparedStatement", false, statement.getClass().getClassLoader());
+        }
+        catch (ClassNotFoundException e) {
+            throw new SQLFeatureNotSupportedException("RETURNING INTO arrays needs the Oracle JDBC driver", e);
+        }
+    }
+
+    private static Object invoke(final Class<?> type, final Object target, final String name,
+        final Class<?>[] parameterTypes, final Object... args) throws SQLException {
+        try {
+            return type.getMethod(name, parameterTypes).invoke(target, args);
+        }
+        catch (NoSuchMethodException e) {
+            throw new SQLFeatureNotSupportedException(type.getName() + "." + name + " not available", e);
+        }
+        catch (InvocationTargetException e) {
+            final Throwable cause = e.getTargetException();
+            if ( cause instanceof SQLException ) throw (SQLException) cause;
+            throw new SQLException(cause);
+        }
+        catch (IllegalAccessException e) {
+            throw new SQLException(e);
+        }
+    }
+
     @JRubyMethod(name = "execute_insert_returning", required = 2)
     public IRubyObject execute_insert_returning(final ThreadContext context,
         final IRubyObject sql, final IRubyObject binds) {
@@ -336,7 +478,109 @@ public class OracleRubyJdbcConnection extends RubyJdbcConnection {
         return desc == null ? context.nil : desc; // TODO raise instead of nil
     }
 
+    /**
+     * How long (in seconds) {@link #describe(ThreadContext, IRubyObject)} results are cached for,
+     * the cache is shared among all connections (0 disables caching).
+     */
+    private static final long DESCRIBE_CACHE_TTL = SafePropertyAccessor.getInt("arjdbc.oracle.describe_cache_ttl", 300) * 1000L;
+
+    private static final ConcurrentHashMap<String, DescribeEntry> DESCRIBE_CACHE = new ConcurrentHashMap<>(64);
+
+    private static final class DescribeEntry {
+        final String name; // normalized name as looked up (might be a synonym)
+        final String[] desc; // [ owner, table_name, db_link ]
+        final long expires;
+        DescribeEntry(String name, String[] desc, long expires) { this.name = name; this.desc = desc; this.expires = expires; }
+    }
+
+    /**
+     * Invalidates cached describe results e.g. after (schema) migrations.
+     * @param context
+     * @param args (optional) a table name to only invalidate entries for, entries are matched by the
+     * (normalized) name they were looked up with as well as the table they resolved to (e.g. for synonyms)
+     * @return nil
+     */
+    @JRubyMethod(name = "clear_describe_cache", optional = 1)
+    public IRubyObject clear_describe_cache(final ThreadContext context, final IRubyObject[] args) {
+        if ( args.length == 0 || args[0].isNil() ) {
+            DESCRIBE_CACHE.clear();
+        }
+        else {
+            final String name = normalizeName(args[0].toString());
+            final int dot = name.indexOf('.');
+            final String owner = dot > 0 ? name.substring(0, dot) : null;
+            final String table = dot > 0 ? name.substring(dot + 1) : name;
+            DESCRIBE_CACHE.values().removeIf(entry -> {
+                final String[] desc = entry.desc;
+                if ( owner == null ? table.equals(unqualifiedName(entry.name)) : name.equals(entry.name) ) return true;
+                return table.equals(desc[1]) && ( owner == null || owner.equals(desc[0]) );
+            });
+        }
+        return context.nil;
+    }
+
+    /**
+     * @return the name normalized the same way as when described e.g. <code>"blog.posts" -> "BLOG.POSTS"</code>
+     */
+    private static String normalizeName(final String name) {
+        final int delim = name.indexOf('@');
+        if ( delim > 0 ) { // NAME@DBLINK
+            return normalizeTableName(name.substring(0, delim)) + name.substring(delim).toUpperCase();
+        }
+        return normalizeTableName(name);
+    }
+
+    private static String normalizeTableName(final String name) {
+        return isValidTableName(name) ? name.toUpperCase() : unquoteTableName(name);
+    }
+
+    private static String unqualifiedName(final String name) {
+        final int dot = name.indexOf('.');
+        return dot > 0 ? name.substring(dot + 1) : name;
+    }
+
     private RubyArray describe(final ThreadContext context, final String name, final String owner) {
+        final String[] desc = withConnection(context, connection -> {
+            if ( DESCRIBE_CACHE_TTL <= 0 ) return describe(context, connection, name, owner);
+
+            final DatabaseMetaData metaData = connection.getMetaData();
+            // NOTE: shared among connections (to possibly different databases) thus keyed by URL and user
+            final String normalizedName = normalizeName(name);
+            final String key = metaData.getURL() + '\0' + metaData.getUserName() + '\0' + normalizedName + '\0' + owner;
+
+            final DescribeEntry entry = DESCRIBE_CACHE.get(key);
+            final long now = System.currentTimeMillis();
+            if ( entry != null && entry.expires > now ) return entry.desc;
+
+            final String[] result = describe(context, connection, name, owner);
+            if ( result != null ) DESCRIBE_CACHE.put(key, new DescribeEntry(normalizedName, result, now + DESCRIBE_CACHE_TTL));
+            else if ( entry != null ) DESCRIBE_CACHE.remove(key, entry);
+            return result;
+        });
+        if ( desc == null ) return null;
+
+        final RubyArray arr = allocArray(context, 3);
+        arr.append(context, newString(context, desc[0]));
+        arr.append(context, newString(context, desc[1]));
+        if ( desc[2] != null ) arr.append(context, newString(context, desc[2]));
+        return arr;
+    }
+
+    private static final String DESCRIBE_SQL =
+        "SELECT owner, table_name, 'TABLE' name_type" +
+        " FROM all_tables%1$s WHERE owner = ? AND table_name = ?" +
+        " UNION ALL " +
+        "SELECT owner, view_name table_name, 'VIEW' name_type" +
+        " FROM all_views%1$s WHERE owner = ? AND view_name = ?" +
+        " UNION ALL " +
+        "SELECT table_owner, DECODE(db_link, NULL, table_name, table_name||'@'||db_link), 'SYNONYM' name_type" +
+        " FROM all_synonyms%1$s WHERE owner = ? AND synonym_name = ?" +
+        " UNION ALL " +
+        "SELECT table_owner, DECODE(db_link, NULL, table_name, table_name||'@'||db_link), 'SYNONYM' name_type" +
+        " FROM all_synonyms%1$s WHERE owner = 'PUBLIC' AND synonym_name = ?";
+
+    private String[] describe(final ThreadContext context, final Connection connection,
+        final String name, final String owner) throws SQLException {
         final String dbLink; String defaultOwner, theName = name; int delim;
         if ( ( delim = theName.indexOf('@') ) > 0 ) {
             dbLink = theName.substring(delim).toUpperCase(); // '@DBLINK'
@@ -347,92 +591,71 @@ public class OracleRubyJdbcConnection extends RubyJdbcConnection {
             dbLink = ""; defaultOwner = owner; // config[:username] || meta_data.user_name
         }
 
-        theName = isValidTableName(theName) ? theName.toUpperCase() : unquoteTableName(theName);
+        theName = normalizeTableName(theName);
 
-        final String tableName; final String tableOwner;
+        final String tableName; String tableOwner;
         if ( ( delim = theName.indexOf('.') ) > 0 ) {
             tableOwner = theName.substring(0, delim);
             tableName = theName.substring(delim + 1);
         }
         else {
             tableName = theName;
-            tableOwner = (defaultOwner == null && dbLink.length() > 0) ? selectOwner(context, dbLink) : defaultOwner;
-        }
-
-        return withConnection(context, new Callable<RubyArray>() {
-            public RubyArray call(final Connection connection) throws SQLException {
-                String owner = tableOwner == null ? connection.getMetaData().getUserName() : tableOwner;
-                final String sql =
-                "SELECT owner, table_name, 'TABLE' name_type" +
-                " FROM all_tables" + dbLink +
-                " WHERE owner = '" + owner + "' AND table_name = '" + tableName + "'" +
-                " UNION ALL " +
-                "SELECT owner, view_name table_name, 'VIEW' name_type" +
-                " FROM all_views" + dbLink +
-                " WHERE owner = '" + owner + "' AND view_name = '" + tableName + "'" +
-                " UNION ALL " +
-                "SELECT table_owner, DECODE(db_link, NULL, table_name, table_name||'@'||db_link), 'SYNONYM' name_type" +
-                " FROM all_synonyms" + dbLink +
-                " WHERE owner = '" + owner + "' AND synonym_name = '" + tableName + "'" +
-                " UNION ALL " +
-                "SELECT table_owner, DECODE(db_link, NULL, table_name, table_name||'@'||db_link), 'SYNONYM' name_type" +
-                " FROM all_synonyms" + dbLink +
-                " WHERE owner = 'PUBLIC' AND synonym_name = '" + tableName + "'" ;
-
-                Statement statement = null; ResultSet result = null;
-                try {
-                    statement = connection.createStatement();
-                    result = statement.executeQuery(sql);
-
-                    if ( ! result.next() ) return null; // NOTE: should raise
-
-                    owner = result.getString("owner");
-                    final String table_name = result.getString("table_name");
-                    final String name_type = result.getString("name_type");
-
-                    if ( "SYNONYM".equals(name_type) ) {
-                        final StringBuilder name = new StringBuilder();
-                        if ( owner != null && owner.length() > 0 ) {
-                            name.append(owner).append('.');
-                        }
-                        name.append(table_name);
-                        if ( dbLink != null ) name.append(dbLink);
-                        return describe(context, name.toString(), owner);
-                    }
+            tableOwner = (defaultOwner == null && dbLink.length() > 0) ? selectOwner(context, connection, dbLink) : defaultOwner;
+        }
+        if ( tableOwner == null ) tableOwner = connection.getMetaData().getUserName();
 
-                    final RubyArray arr = allocArray(context, 3);
-                    arr.append(context, newString(context, owner));
-                    arr.append(context, newString(context, table_name));
-                    if ( dbLink != null ) arr.append(context, newString(context, dbLink));
-                    return arr;
-                }
-                catch (final SQLException e) {
-                    debugMessage(context.runtime, "failed to describe '" + name + "' : ", e);
-                    throw e;
+        final String sql = String.format(DESCRIBE_SQL, dbLink);
+        PreparedStatement statement = null; ResultSet result = null;
+        try {
+            statement = connection.prepareStatement(sql);
+            statement.setString(1, tableOwner); statement.setString(2, tableName);
+            statement.setString(3, tableOwner); statement.setString(4, tableName);
+            statement.setString(5, tableOwner); statement.setString(6, tableName);
+            statement.setString(7, tableName);
+            result = statement.executeQuery();
+
+            if ( ! result.next() ) return null; // NOTE: should raise
+
+            final String resultOwner = result.getString("owner");
+            final String table_name = result.getString("table_name");
+            final String name_type = result.getString("name_type");
+
+            if ( "SYNONYM".equals(name_type) ) {
+                final StringBuilder synonym = new StringBuilder();
+                if ( resultOwner != null && resultOwner.length() > 0 ) {
+                    synonym.append(resultOwner).append('.');
                 }
-                finally { close(result); close(statement); }
+                synonym.append(table_name);
+                synonym.append(dbLink);
+                close(result); close(statement);
+                return describe(context, connection, synonym.toString(), resultOwner);
             }
-        });
+
+            return new String[] { resultOwner, table_name, dbLink };
+        }
+        catch (final SQLException e) {
+            debugMessage(context.runtime, "failed to describe '" + name + "' : ", e);
+            throw e;
+        }
+        finally { close(result); close(statement); }
     }
 
-    private String selectOwner(final ThreadContext context, final String dbLink) {
-        return withConnection(context, new Callable<String>() {
-            public String call(final Connection connection) throws SQLException {
-                Statement statement = null; ResultSet result = null;
-                final String sql = "SELECT username FROM all_db_links WHERE db_link = '" + dbLink + "'";
-                try {
-                    statement = connection.createStatement();
-                    result = statement.executeQuery(sql);
-                    // if ( ! result.next() ) return null;
-                    return result.getString(1);
-                }
-                catch (final SQLException e) {
-                    debugMessage(context.runtime, "select owner (" + sql + ") failed: ", e);
-                    throw e;
-                }
-                finally { close(result); close(statement); }
-            }
-        });
+    private String selectOwner(final ThreadContext context, final Connection connection, final String dbLink)
+        throws SQLException {
+        PreparedStatement statement = null; ResultSet result = null;
+        final String sql = "SELECT username FROM all_db_links WHERE db_link = ?";
+        try {
+            statement = connection.prepareStatement(sql);
+            statement.setString(1, dbLink.substring(1)); // '@DBLINK'
+            result = statement.executeQuery();
+            if ( ! result.next() ) return null;
+            return result.getString(1);
+        }
+        catch (final SQLException e) {
+            debugMessage(context.runtime, "select owner (" + sql + ") failed: ", e);
+            throw e;
+        }
+        finally { close(result); close(statement); }
     }
 
     private static final Pattern VALID_TABLE_NAME;
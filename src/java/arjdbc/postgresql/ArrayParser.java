@@ -0,0 +1,113 @@
+package arjdbc.postgresql;
+
+import org.jcodings.Encoding;
+import org.jruby.Ruby;
+import org.jruby.RubyArray;
+import org.jruby.RubyString;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.util.ByteList;
+
+import static org.jruby.api.Create.newArray;
+
+/**
+ * Parses PG array literals e.g. <code>{a,"b c",NULL,{1,2}}</code> into (nested) arrays of strings,
+ * works the same way as (lib/arjdbc/postgresql/base/array_parser.rb) <code>ArrayParser#parse_pg_array</code>
+ * but over the raw bytes (the literal's special characters are all ASCII thus this works with UTF-8).
+ *
+ * @see PostgreSQLModule#parse_pg_array(ThreadContext, IRubyObject, IRubyObject)
+ */
+abstract class ArrayParser {
+
+    static RubyArray parse(final ThreadContext context, final RubyString string) {
+        final ByteList bytes = string.getByteList();
+        final byte[] b = bytes.unsafeBytes();
+        final int end = bytes.getBegin() + bytes.getRealSize();
+        final Contents parser = new Contents(context, b, end, bytes.getEncoding());
+
+        final RubyArray array = newArray(context);
+        for ( int i = bytes.getBegin(); i < end; i++ ) {
+            switch ( b[i] ) {
+                case '{' : i = parser.parse(array, i + 1); break;
+                case '}' : return array;
+            }
+        }
+        return array;
+    }
+
+    private static final class Contents {
+
+        private final ThreadContext context;
+        private final byte[] bytes;
+        private final int end;
+        private final Encoding encoding;
+
+        Contents(final ThreadContext context, final byte[] bytes, final int end, final Encoding encoding) {
+            this.context = context;
+            this.bytes = bytes;
+            this.end = end;
+            this.encoding = encoding;
+        }
+
+        /**
+         * @return index of the closing bracket
+         */
+        int parse(final RubyArray array, final int index) {
+            boolean escaping = false, quoted = false, wasQuoted = false;
+            final ByteList item = new ByteList(16); // reused for all items (of this array)
+
+            for ( int i = index; i < end; i++ ) {
+                final byte token = bytes[i];
+                if ( escaping ) {
+                    item.append(token); escaping = false;
+                }
+                else if ( quoted ) {
+                    switch ( token ) {
+                        case '"' : quoted = false; wasQuoted = true; break;
+                        case '\\' : escaping = true; break;
+                        default : item.append(token);
+                    }
+                }
+                else {
+                    switch ( token ) {
+                        case '\\' : escaping = true; break;
+                        case ',' :
+                            addItem(array, item, wasQuoted);
+                            wasQuoted = false;
+                            break;
+                        case '"' : quoted = true; break;
+                        case '{' :
+                            final RubyArray nested = newArray(context);
+                            i = parse(nested, i + 1);
+                            array.append(context, nested);
+                            break;
+                        case '}' :
+                            addItem(array, item, wasQuoted);
+                            return i;
+                        default : item.append(token);
+                    }
+                }
+            }
+            throw context.runtime.newArgumentError("malformed array literal (missing closing '}')");
+        }
+
+        private void addItem(final RubyArray array, final ByteList item, final boolean quoted) {
+            final int size = item.getRealSize();
+            if ( ! quoted && size == 0 ) return;
+
+            final Ruby runtime = context.runtime;
+            if ( ! quoted && size == 4 && isNULL(item.unsafeBytes(), item.getBegin()) ) {
+                array.append(context, context.nil);
+            }
+            else {
+                array.append(context, RubyString.newString(runtime, new ByteList(item.unsafeBytes(), item.getBegin(), size, encoding, true)));
+            }
+            item.setRealSize(0);
+        }
+
+        private static boolean isNULL(final byte[] b, final int i) {
+            return b[i] == 'N' && b[i + 1] == 'U' && b[i + 2] == 'L' && b[i + 3] == 'L';
+        }
+
+    }
+
+}
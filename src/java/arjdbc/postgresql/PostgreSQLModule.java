@@ -27,6 +27,7 @@ import static arjdbc.util.QuotingUtils.quoteCharAndDecorateWith;
 import static arjdbc.util.QuotingUtils.quoteCharWith;
 
 import org.jruby.Ruby;
+import org.jruby.RubyArray;
 import org.jruby.RubyModule;
 import org.jruby.RubyString;
 import org.jruby.anno.JRubyMethod;
@@ -73,4 +74,13 @@ public class PostgreSQLModule {
         return RubyString.newString(context.runtime, ByteaUtils.toBytes(bytes.unsafeBytes(), bytes.getBegin(), bytes.getRealSize()));
     }
 
+    /**
+     * Parses a PG array literal e.g. <code>{a,"b,c",NULL}</code> into a (nested) array of strings.
+     * @return array of strings (nil for NULL items)
+     */
+    @JRubyMethod(name = "parse_pg_array", meta = true)
+    public static RubyArray parse_pg_array(final ThreadContext context, final IRubyObject self, final IRubyObject string) {
+        return ArrayParser.parse(context, string.convertToString());
+    }
+
 }
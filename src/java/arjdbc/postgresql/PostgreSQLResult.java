@@ -18,7 +18,6 @@ import org.jruby.RubyNumeric;
 import org.jruby.RubyString;
 import org.jruby.anno.JRubyMethod;
 import org.jruby.runtime.Block;
-import org.jruby.runtime.Helpers;
 import org.jruby.runtime.ObjectAllocator;
 import org.jruby.runtime.ThreadContext;
 import org.jruby.runtime.builtin.IRubyObject;
@@ -81,10 +80,10 @@ public class PostgreSQLResult extends JdbcResult {
      */
     @Override
     protected IRubyObject columnTypeMap(final ThreadContext context) throws SQLException {
-        Ruby runtime = context.runtime;
-        RubyHash types = RubyHash.newHash(runtime);
+        RubyHash types = RubyHash.newHash(context.runtime);
         int columnCount = columnNames.length;
 
+        final PostgreSQLRubyJdbcConnection connection = (PostgreSQLRubyJdbcConnection) this.connection;
         IRubyObject adapter = connection.adapter(context);
         for (int i = 0; i < columnCount; i++) {
             int col = i + 1;
@@ -102,10 +101,7 @@ public class PostgreSQLResult extends JdbcResult {
             }
 
             final RubyString name = columnNames[i];
-            final IRubyObject type = Helpers.invoke(context, adapter, "get_oid_type",
-                    runtime.newString(typeName),
-                    runtime.newFixnum(mod),
-                    name);
+            final IRubyObject type = connection.resolveOidType(context, adapter, typeName, mod, name);
 
             if (!type.isNil()) types.fastASet(name, type);
         }
@@ -124,12 +120,16 @@ public class PostgreSQLResult extends JdbcResult {
     public IRubyObject each(ThreadContext context, Block block) {
         // At this point we don't support calling this without a block
         if (block.isGiven()) {
-            if (tuples == null) {
-                populateTuples(context);
+            if (tuples != null) {
+                for (RubyHash tuple : tuples) {
+                    block.yield(context, tuple);
+                }
+                return this;
             }
 
-            for (RubyHash tuple : tuples) {
-                block.yield(context, tuple);
+            // build row hashes as we go, none of them are retained by the result
+            for (int i = 0; i < values.getLength(); i++) {
+                block.yield(context, tupleAt(context, i));
             }
 
             return this;
@@ -138,6 +138,41 @@ public class PostgreSQLResult extends JdbcResult {
         }
     }
 
+    /**
+     * Yields a hash (column name to value) for each row while the result set is being fetched,
+     * rows are not collected (PostgreSQL only fetches incrementally with a fetch size set and
+     * auto-commit off).
+     * @param context current thread context
+     * @param connection the connection doing the value conversion
+     * @param resultSet the set of results to be yielded
+     * @param block to yield each row hash to
+     * @return number of rows yielded
+     * @throws SQLException throws!
+     */
+    static long yieldTuples(final ThreadContext context, final PostgreSQLRubyJdbcConnection connection,
+                            final ResultSet resultSet, final Block block) throws SQLException {
+        final ResultSetMetaData metaData = resultSet.getMetaData();
+        final int columnCount = metaData.getColumnCount();
+        final RubyString[] columnNames = new RubyString[columnCount];
+        final int[] columnTypes = new int[columnCount];
+        for (int i = 1; i <= columnCount; i++) { // metadata is one-based
+            columnNames[i - 1] = RubyJdbcConnection.STRING_CACHE.get(context, metaData.getColumnLabel(i));
+            columnTypes[i - 1] = metaData.getColumnType(i);
+        }
+
+        final Ruby runtime = context.runtime;
+        long count = 0;
+        while (resultSet.next()) {
+            final RubyHash tuple = RubyHash.newHash(runtime);
+            for (int i = 0; i < columnCount; i++) {
+                tuple.fastASet(columnNames[i], connection.jdbcToRuby(context, runtime, i + 1, columnTypes[i], resultSet));
+            }
+            block.yield(context, tuple);
+            count++;
+        }
+        return count;
+    }
+
     private RubyClass getBinaryDataClass(final ThreadContext context) {
         return getModule(context, "ActiveModel").
                 getModule(context, "Type").
@@ -247,15 +282,7 @@ public class PostgreSQLResult extends JdbcResult {
 
         if (row < 0 || row >= rows) throw argumentError(context, "Index " + row + " is out of range");
 
-        RubyArray rowValues = (RubyArray) values.eltOk(row);
-        RubyHash resultHash = RubyHash.newSmallHash(context.runtime);
-        RubyArray fields = fields(context);
-        int length = rowValues.getLength();
-        for (int i = 0; i < length; i++) {
-            resultHash.op_aset(context, fields.eltOk(i), rowValues.eltOk(i));
-        }
-
-        return resultHash;
+        return tupleAt(context, row);
     }
 
     // Note: this is # of commands (insert/update/selects performed) and not number of rows.  In practice,
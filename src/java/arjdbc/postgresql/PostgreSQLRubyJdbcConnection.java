@@ -49,10 +49,12 @@ import org.jruby.exceptions.RaiseException;
 import org.jruby.ext.bigdecimal.RubyBigDecimal;
 import org.jruby.ext.date.RubyDate;
 import org.jruby.javasupport.JavaUtil;
+import org.jruby.runtime.Block;
 import org.jruby.runtime.ObjectAllocator;
 import org.jruby.runtime.ThreadContext;
 import org.jruby.runtime.builtin.IRubyObject;
 import org.jruby.util.ByteList;
+import org.jruby.util.SafePropertyAccessor;
 
 import org.jruby.util.TypeConverter;
 import org.postgresql.PGConnection;
@@ -109,9 +111,15 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
     private static final Pattern pointCleanerPattern = Pattern.compile("\\.0\\b");
     private static final TimeZone TZ_DEFAULT = TimeZone.getDefault();
 
+    // rows fetched per round-trip by #stream_each (unless jdbc_fetch_size: is configured)
+    private static final int STREAM_FETCH_SIZE = SafePropertyAccessor.getInt("arjdbc.postgresql.stream_fetch_size", 1000);
+
     private RubyClass resultClass;
     private RubyHash typeMap = null;
 
+    // resolved adapter.get_oid_type(type_name, fmod, ...) results keyed by type name (and fmod when non-zero)
+    private final Map<String, IRubyObject> oidTypeCache = new java.util.concurrent.ConcurrentHashMap<>(64);
+
     public PostgreSQLRubyJdbcConnection(Ruby runtime, RubyClass metaClass) {
         super(runtime, metaClass);
 
@@ -149,9 +157,7 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
     }
 
     @Override
-    protected DriverWrapper newDriverWrapper(final ThreadContext context, final String driver) {
-        DriverWrapper driverWrapper = super.newDriverWrapper(context, driver);
-
+    protected void configureDriverDefaults(final ThreadContext context, final DriverWrapper driverWrapper) {
         final java.sql.Driver jdbcDriver = driverWrapper.getDriverInstance();
         if ( jdbcDriver.getClass().getName().startsWith("org.postgresql.") ) {
             try { // public static String getVersion()
@@ -164,15 +170,13 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
             }
             catch (NoSuchMethodException | SecurityException | InvocationTargetException | IllegalAccessException ignored) { }
         }
-
-        return driverWrapper;
     }
 
     @Override
     protected final IRubyObject beginTransaction(final ThreadContext context, final Connection connection,
         final IRubyObject isolation) throws SQLException {
         // NOTE: only reversed order - just to ~ match how Rails does it :
-        /* if ( connection.getAutoCommit() ) */ connection.setAutoCommit(false);
+        setAutoCommit(connection, false);
         if ( isolation != null ) setTransactionIsolation(context, connection, isolation);
         return context.nil;
     }
@@ -220,6 +224,75 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
         return execute_prepared_query(context, sql, binds, null);
     }
 
+    /**
+     * Executes a query yielding a <code>Hash</code> (column name to value) for each row as it gets
+     * fetched, unlike <code>exec_query</code> rows are never collected into a result.
+     *
+     * NOTE: the PostgreSQL driver only uses a cursor with auto-commit off, outside of a transaction
+     * the query is executed within a short-lived one (committed after all rows were yielded).
+     *
+     * @param context current thread context
+     * @param args (sql) or (sql, binds)
+     * @param block yields each row hash
+     * @return number of rows yielded
+     */
+    @JRubyMethod(name = "stream_each", required = 1, optional = 1)
+    public IRubyObject stream_each(final ThreadContext context, final IRubyObject[] args, final Block block) {
+        if ( ! block.isGiven() ) throw context.runtime.newArgumentError("no block given");
+
+        final String query = sqlString(args[0]);
+        final RubyArray binds = args.length > 1 && ! args[1].isNil() ?
+                (RubyArray) TypeConverter.checkArrayType(context, args[1]) : null;
+
+        // rows are yielded as they're read thus re-trying would yield (some) rows twice
+        return withConnectionNoRetry(context, connection -> {
+            final boolean autoCommit = isAutoCommit(connection);
+            Statement statement = null; boolean success = false;
+            try {
+                if ( autoCommit ) setAutoCommit(connection, false);
+
+                final boolean hasResult;
+                if ( binds == null || binds.isEmpty() ) {
+                    statement = createStatement(context, connection);
+                    if ( statement.getFetchSize() == 0 ) statement.setFetchSize(STREAM_FETCH_SIZE);
+                    hasResult = statement.execute(query);
+                }
+                else {
+                    final PreparedStatement prepStatement;
+                    statement = prepStatement = connection.prepareStatement(query);
+                    if ( statement.getFetchSize() == 0 ) statement.setFetchSize(STREAM_FETCH_SIZE);
+                    setStatementParameters(context, connection, prepStatement, binds);
+                    hasResult = prepStatement.execute();
+                }
+
+                long count = 0;
+                if ( hasResult ) {
+                    final ResultSet resultSet = statement.getResultSet();
+                    try {
+                        count = PostgreSQLResult.yieldTuples(context, this, resultSet, block);
+                    }
+                    finally { close(resultSet); }
+                }
+                success = true;
+                return context.runtime.newFixnum(count);
+            }
+            catch (final SQLException e) {
+                debugErrorSQL(context, query);
+                throw e;
+            }
+            finally {
+                close(statement);
+                if ( autoCommit ) {
+                    try {
+                        if ( success ) connection.commit();
+                        else connection.rollback();
+                    }
+                    finally { setAutoCommit(connection, true); }
+                }
+            }
+        });
+    }
+
     private transient RubyClass oidArray; // PostgreSQL::OID::Array
 
     private RubyClass oidArray(final ThreadContext context) {
@@ -1073,6 +1146,40 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
         return PostgreSQLModule.quote_string(context, this, string);
     }
 
+    /**
+     * Resolves the (OID) type object for a result column, the adapter's <code>get_oid_type</code>
+     * is only invoked the first time a (type name, fmod) combination is seen.
+     * @param context current thread context
+     * @param adapter the adapter owning the type map
+     * @param typeName the column's (PostgreSQL) type name
+     * @param mod type modifier (0 if not relevant)
+     * @param columnName used for reporting unknown types
+     * @return the type object (or nil)
+     */
+    IRubyObject resolveOidType(final ThreadContext context, final IRubyObject adapter,
+                               final String typeName, final int mod, final RubyString columnName) {
+        final String key = mod == 0 ? typeName : typeName + '(' + mod + ')';
+        IRubyObject type = oidTypeCache.get(key);
+        if (type == null) {
+            final Ruby runtime = context.runtime;
+            type = adapter.callMethod(context, "get_oid_type",
+                    new IRubyObject[] { runtime.newString(typeName), runtime.newFixnum(mod), columnName });
+            if (!type.isNil()) oidTypeCache.put(key, type);
+        }
+        return type;
+    }
+
+    /**
+     * Needs to be called whenever the adapter's type map gets reloaded.
+     * @param context current thread context
+     * @return nil
+     */
+    @JRubyMethod(name = "clear_oid_type_cache")
+    public IRubyObject clear_oid_type_cache(final ThreadContext context) {
+        oidTypeCache.clear();
+        return context.nil;
+    }
+
     @PG @JRubyMethod(name = "typemap=")
     public IRubyObject typemap_set(ThreadContext context, IRubyObject mapArg) {
         if (mapArg.isNil()) {
@@ -0,0 +1,147 @@
+package arjdbc.sqlite3;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import arjdbc.jdbc.ConnectionFactory;
+
+/**
+ * A (small) pool of read-only connections to a SQLite database file.
+ *
+ * With WAL journaling readers do not block the writer (nor each other), pools are shared
+ * (per database URL) among all connections that opted-in so reads from different threads
+ * get spread across the readers while writes keep going through each (writer) connection.
+ */
+final class SQLite3ReadPool {
+
+    private static final ConcurrentHashMap<String, SQLite3ReadPool> POOLS = new ConcurrentHashMap<>(8);
+
+    private final String url;
+    private final int maxSize;
+    private final ConnectionFactory connectionFactory;
+    private final List<String> pragmas;
+
+    private final ConcurrentLinkedQueue<Connection> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger(0);
+    private final AtomicLong borrowed = new AtomicLong(0); // stats
+    private int references; // guarded by POOLS.compute
+    private volatile boolean closed;
+
+    private SQLite3ReadPool(final String url, final int maxSize,
+                            final ConnectionFactory connectionFactory, final List<String> pragmas) {
+        this.url = url;
+        this.maxSize = maxSize;
+        this.connectionFactory = connectionFactory;
+        this.pragmas = pragmas;
+    }
+
+    /**
+     * @param url the database URL (pool key)
+     * @param maxSize maximum number of readers (only used when the pool gets created)
+     * @param connectionFactory factory to open readers with
+     * @param pragmas statements to execute on each new reader
+     * @return the (shared) pool for the database, to be {@link #release()}-d
+     */
+    static SQLite3ReadPool acquire(final String url, final int maxSize,
+                                   final ConnectionFactory connectionFactory, final List<String> pragmas) {
+        return POOLS.compute(url, (key, pool) -> {
+            if (pool == null) pool = new SQLite3ReadPool(key, maxSize, connectionFactory, pragmas);
+            pool.references++;
+            return pool;
+        });
+    }
+
+    void release() {
+        POOLS.computeIfPresent(url, (key, pool) -> {
+            if (pool != this || --pool.references > 0) return pool;
+            pool.close();
+            return null;
+        });
+    }
+
+    /**
+     * @return an idle (or newly opened) reader, null if all readers are in use
+     * @throws SQLException if opening a new reader fails
+     */
+    Connection borrow() throws SQLException {
+        final Connection connection = idle.poll();
+        if (connection != null) {
+            borrowed.incrementAndGet();
+            return connection;
+        }
+
+        if (size.incrementAndGet() > maxSize) {
+            size.decrementAndGet();
+            return null;
+        }
+        try {
+            final Connection opened = open();
+            borrowed.incrementAndGet();
+            return opened;
+        }
+        catch (SQLException|RuntimeException e) {
+            size.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * @param connection the reader
+     * @param broken whether the reader failed and should not be reused
+     */
+    void giveBack(final Connection connection, final boolean broken) {
+        if (broken || closed) {
+            size.decrementAndGet();
+            close(connection);
+            return;
+        }
+        idle.offer(connection);
+        if (closed && idle.remove(connection)) { // release() raced with us
+            size.decrementAndGet();
+            close(connection);
+        }
+    }
+
+    int getSize() { return size.get(); }
+
+    int getIdleCount() { return idle.size(); }
+
+    /**
+     * @return how many times a reader has been handed out (by this pool)
+     */
+    long getBorrowCount() { return borrowed.get(); }
+
+    private Connection open() throws SQLException {
+        final Connection connection = connectionFactory.newConnection();
+        try (Statement statement = connection.createStatement()) {
+            for (final String pragma : pragmas) statement.execute(pragma);
+            statement.execute("PRAGMA query_only = ON");
+        }
+        catch (SQLException e) {
+            close(connection);
+            throw e;
+        }
+        return connection;
+    }
+
+    private static void close(final Connection connection) {
+        try { connection.close(); }
+        catch (SQLException e) { /* ignore */ }
+    }
+
+    private void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            size.decrementAndGet();
+            close(connection);
+        }
+    }
+
+}
@@ -36,6 +36,7 @@ import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.Savepoint;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -43,6 +44,7 @@ import org.jruby.Ruby;
 import org.jruby.RubyArray;
 import org.jruby.RubyClass;
 import org.jruby.RubyFixnum;
+import org.jruby.RubyHash;
 import org.jruby.RubyInteger;
 import org.jruby.RubyNumeric;
 import org.jruby.RubyString;
@@ -62,6 +64,7 @@ import static arjdbc.util.StringHelper.newDefaultInternalString;
 import static arjdbc.util.StringHelper.newString;
 import static org.jruby.api.Access.getModule;
 import static org.jruby.api.Convert.asFixnum;
+import static org.jruby.api.Convert.toInt;
 import static org.jruby.api.Create.allocArray;
 import static org.jruby.api.Create.newArray;
 import static org.jruby.api.Create.newEmptyArray;
@@ -168,11 +171,12 @@ public class SQLite3RubyJdbcConnection extends RubyJdbcConnection {
     protected Statement createStatement(final ThreadContext context, final Connection connection)
         throws SQLException {
         final Statement statement = connection.createStatement();
-        IRubyObject escapeProcessing = getConfigValue(context, "statement_escape_processing");
-        if ( escapeProcessing != null && ! escapeProcessing.isNil() ) {
-            statement.setEscapeProcessing( escapeProcessing.isTrue() );
+        final Boolean escapeProcessing = getSettings().getEscapeProcessing();
+        if ( escapeProcessing != null ) {
+            statement.setEscapeProcessing(escapeProcessing);
         }
         // else leave as is by default
+        applyStatementSettings(statement);
         return statement;
     }
 
@@ -394,7 +398,8 @@ public class SQLite3RubyJdbcConnection extends RubyJdbcConnection {
         Statement statement = null;
         try {
             final Connection connection = getConnectionInternal(true);
-            connection.setAutoCommit(false);
+            applyPendingBegin(context, connection);
+            setAutoCommit(connection, false);
             // NOTE: JDBC driver does not support setSavepoint(String) :
             ( statement = connection.createStatement() ).execute("SAVEPOINT " + name.toString());
 
@@ -408,6 +413,133 @@ public class SQLite3RubyJdbcConnection extends RubyJdbcConnection {
         finally { close(statement); }
     }
 
+    private transient SQLite3ReadPool readPool;
+
+    /**
+     * Opt-in routing of (auto-commit) SELECT queries to a pool of read-only connections,
+     * meant for file databases in WAL journal mode.
+     * @param context current thread context
+     * @param size maximum number of readers (0 disables the pool)
+     * @param pragmas PRAGMA statements to configure (new) readers with
+     * @return nil
+     */
+    @JRubyMethod(name = "setup_read_pool", required = 2)
+    public IRubyObject setup_read_pool(final ThreadContext context, final IRubyObject size, final IRubyObject pragmas) {
+        final int maxSize = toInt(context, size);
+        final RubyArray pragmaArray = pragmas.convertToArray();
+        final List<String> pragmaList = new ArrayList<>(pragmaArray.getLength());
+        for ( int i = 0; i < pragmaArray.getLength(); i++ ) {
+            pragmaList.add(sqlString(pragmaArray.eltInternal(i)));
+        }
+
+        return withConnection(context, connection -> {
+            releaseReadPool();
+            if ( maxSize > 0 ) {
+                readPool = SQLite3ReadPool.acquire(connection.getMetaData().getURL(), maxSize, getConnectionFactory(), pragmaList);
+            }
+            return context.nil;
+        });
+    }
+
+    private void releaseReadPool() {
+        final SQLite3ReadPool readPool = this.readPool;
+        if ( readPool != null ) {
+            this.readPool = null;
+            readPool.release();
+        }
+    }
+
+    @Override
+    @JRubyMethod(name = "disconnect!")
+    public synchronized IRubyObject disconnect(final ThreadContext context) {
+        releaseReadPool();
+        return super.disconnect(context);
+    }
+
+    @JRubyMethod(name = "read_pool_stats")
+    public IRubyObject read_pool_stats(final ThreadContext context) {
+        final SQLite3ReadPool readPool = this.readPool;
+        if ( readPool == null ) return context.nil;
+        final Ruby runtime = context.runtime;
+        final RubyHash stats = RubyHash.newHash(runtime);
+        stats.fastASet(runtime.newSymbol("size"), runtime.newFixnum(readPool.getSize()));
+        stats.fastASet(runtime.newSymbol("idle"), runtime.newFixnum(readPool.getIdleCount()));
+        stats.fastASet(runtime.newSymbol("borrowed"), runtime.newFixnum(readPool.getBorrowCount()));
+        return stats;
+    }
+
+    private Connection borrowReader(final ThreadContext context, final SQLite3ReadPool readPool,
+        final Connection writer, final IRubyObject sql) {
+        if ( readPool == null || ! isReadQuery(sql.convertToString().getByteList()) ) return null;
+        try {
+            // within a transaction reads need to see (un-committed) writes
+            if ( writer == null || isBeginPending() || ! isAutoCommit(writer) ) return null;
+            return readPool.borrow(); // null if all readers are busy
+        }
+        catch (SQLException e) {
+            debugMessage(context.runtime, "failed to get a reader: ", e);
+            return null; // use the writer
+        }
+    }
+
+    @Override
+    @JRubyMethod(required = 1)
+    public IRubyObject execute_query(final ThreadContext context, final IRubyObject sql) {
+        final SQLite3ReadPool readPool = this.readPool;
+        final Connection reader = borrowReader(context, readPool, getConnection(false), sql);
+        if ( reader == null ) return super.execute_query(context, sql);
+
+        final String query = sqlString(sql);
+        Statement statement = null; boolean broken = true;
+        try {
+            statement = createStatement(context, reader);
+            final Statement executeStatement = statement;
+            final IRubyObject result = executeCancellable(context, statement, () -> executeStatement.execute(query)) ?
+                    mapQueryResult(context, reader, statement.getResultSet()) : newEmptyResult(context);
+            broken = false;
+            return result;
+        }
+        catch (final SQLException e) {
+            debugErrorSQL(context, query);
+            return handleException(context, e);
+        }
+        finally {
+            close(statement);
+            readPool.giveBack(reader, broken);
+        }
+    }
+
+    @Override
+    @JRubyMethod(required = 3)
+    public IRubyObject execute_prepared_query(final ThreadContext context, final IRubyObject sql,
+        final IRubyObject binds, final IRubyObject cachedStatement) {
+        // cached statements are bound to the (writer) connection
+        final SQLite3ReadPool readPool = this.readPool;
+        final Connection reader = cachedStatement == null || cachedStatement.isNil() ?
+                borrowReader(context, readPool, getConnection(false), sql) : null;
+        if ( reader == null ) return super.execute_prepared_query(context, sql, binds, cachedStatement);
+
+        final String query = sqlString(sql);
+        PreparedStatement statement = null; boolean broken = true;
+        try {
+            statement = reader.prepareStatement(query);
+            applyStatementSettings(statement);
+            setStatementParameters(context, reader, statement, (RubyArray) binds);
+            final IRubyObject result = executeCancellable(context, statement, statement::execute) ?
+                    mapQueryResult(context, reader, statement.getResultSet()) : newEmptyResult(context);
+            broken = false;
+            return result;
+        }
+        catch (final SQLException e) {
+            debugErrorSQL(context, query);
+            return handleException(context, e);
+        }
+        finally {
+            close(statement);
+            readPool.giveBack(reader, broken);
+        }
+    }
+
     @JRubyMethod
     public IRubyObject filename(ThreadContext context) {
         return getConfigValue(context, "database");
@@ -465,6 +597,57 @@ public class SQLite3RubyJdbcConnection extends RubyJdbcConnection {
         return context.tru;
     }
 
+    /**
+     * Copies the (e.g. in-memory) database into the given file using SQLite's online backup API.
+     * @param context current thread context
+     * @param args (file) or (file, database_name) - main being the default
+     * @return nil
+     */
+    @JRubyMethod(name = "backup", required = 1, optional = 1)
+    public IRubyObject backup(final ThreadContext context, final IRubyObject[] args) {
+        return executeBackupCommand(context, "backup", args, "to");
+    }
+
+    /**
+     * Replaces the database contents with a (previous) backup, this is (much) faster than
+     * re-loading schema and data e.g. to reset a seeded in-memory database between tests.
+     * @param context current thread context
+     * @param args (file) or (file, database_name) - main being the default
+     * @return nil
+     */
+    @JRubyMethod(name = "restore", required = 1, optional = 1)
+    public IRubyObject restore(final ThreadContext context, final IRubyObject[] args) {
+        return executeBackupCommand(context, "restore", args, "from");
+    }
+
+    // SQLite JDBC understands "backup [db] to file" and "restore [db] from file" statements
+    private IRubyObject executeBackupCommand(final ThreadContext context,
+        final String command, final IRubyObject[] args, final String preposition) {
+        final String file = quoteBackupArgument(context, args[0].convertToString().toString());
+        final String database = args.length > 1 && ! args[1].isNil() ?
+                quoteBackupArgument(context, args[1].convertToString().toString()) : "main";
+        final String query = command + ' ' + database + ' ' + preposition + ' ' + file;
+        return withConnection(context, connection -> {
+            Statement statement = null;
+            try {
+                statement = connection.createStatement();
+                statement.executeUpdate(query);
+                return context.nil;
+            }
+            catch (final SQLException e) {
+                debugErrorSQL(context, query);
+                throw e;
+            }
+            finally { close(statement); }
+        });
+    }
+
+    private static String quoteBackupArgument(final ThreadContext context, final String value) {
+        if ( value.indexOf('\'') == -1 ) return '\'' + value + '\'';
+        if ( value.indexOf('"') == -1 ) return '"' + value + '"';
+        throw context.runtime.newArgumentError("can not quote: " + value);
+    }
+
     @JRubyMethod(name = "readonly?")
     public IRubyObject readonly_p(final ThreadContext context) throws SQLException {
         final Connection connection = getConnection(true);
@@ -487,7 +670,8 @@ public class SQLite3RubyJdbcConnection extends RubyJdbcConnection {
 
                 // SQLite3 can support multiple statements in one query
                 // Process all results but return the last one for Rails compatibility
-                boolean hasResultSet = doExecute(statement, query);
+                final Statement executeStatement = statement;
+                boolean hasResultSet = executeCancellable(context, statement, () -> doExecute(executeStatement, query));
                 int updateCount = statement.getUpdateCount();
                 IRubyObject result = null;
 
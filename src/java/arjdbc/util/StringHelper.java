@@ -60,22 +60,24 @@ public abstract class StringHelper {
 
     public static RubyString newDefaultInternalString(final Ruby runtime, final byte[] bytes) {
         final ByteList byteList = new ByteList(bytes, false);
-        Encoding enc = runtime.getDefaultInternalEncoding();
-        if (enc == null) enc = runtime.getEncodingService().getJavaDefault();
-        return RubyString.newString(runtime, byteList, enc);
+        return RubyString.newString(runtime, byteList, defaultInternalEncoding(runtime));
     }
 
     public static RubyString newDefaultInternalString(final Ruby runtime, final CharSequence str) {
-        Encoding enc = runtime.getDefaultInternalEncoding();
-        if (enc == null) enc = runtime.getEncodingService().getJavaDefault();
-        return new RubyString(runtime, runtime.getString(), str, enc);
+        return new RubyString(runtime, runtime.getString(), str, defaultInternalEncoding(runtime));
     }
 
     // NOTE: a 'better' RubyString.newInternalFromJavaExternal - to be back-ported in JRuby 9.2
     public static RubyString newDefaultInternalString(final Ruby runtime, final String str) {
-        Encoding enc = runtime.getDefaultInternalEncoding();
-        if (enc == null) enc = runtime.getEncodingService().getJavaDefault();
-        return RubyString.newString(runtime, str, enc);
+        return RubyString.newString(runtime, str, defaultInternalEncoding(runtime));
+    }
+
+    /**
+     * @return the encoding (Ruby) strings are expected in (default internal, the Java default if not set)
+     */
+    public static Encoding defaultInternalEncoding(final Ruby runtime) {
+        final Encoding enc = runtime.getDefaultInternalEncoding();
+        return enc == null ? runtime.getEncodingService().getJavaDefault() : enc;
     }
 
     public static int readBytes(final ByteList output, final InputStream input)
@@ -0,0 +1,23 @@
+require 'java'
+# both are read once (when the DB2 connection class gets loaded) thus need to be set upfront
+java.lang.System.setProperty('arjdbc.db2.final_table_insert', 'true')
+java.lang.System.setProperty('arjdbc.db2.fetch_size', '25')
+
+require 'test_helper'
+
+# NOTE: there's no DB2 driver gem, expecting the (db2jcc) driver .jar to be on the class-path
+require ENV['DB2_DRIVER_JAR'] if ENV['DB2_DRIVER_JAR']
+
+DB2_CONFIG = {
+  adapter:  'jdbc',
+  driver:   'com.ibm.db2.jcc.DB2Driver',
+  username: ENV['DB2_USER'] || 'db2inst1',
+  password: ENV['DB2_PASS'] || 'db2inst1',
+  prepared_statements: ENV['PREPARED_STATEMENTS'] || ENV['PS']
+}
+DB2_CONFIG[:url] = "jdbc:db2://#{ENV['DB2_HOST'] || 'localhost'}:#{ENV['DB2_PORT'] || 50000}/" <<
+  ( ENV['DB2_DATABASE'] || 'testdb' )
+
+ArJdbc.load_java_part :DB2
+
+ActiveRecord::Base.establish_connection(DB2_CONFIG)
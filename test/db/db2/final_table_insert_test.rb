@@ -0,0 +1,47 @@
+require 'db/db2'
+
+class DB2FinalTableInsertTest < Test::Unit::TestCase
+
+  def setup
+    connection.execute 'CREATE TABLE final_samples ' <<
+      '(id INTEGER NOT NULL GENERATED ALWAYS AS IDENTITY PRIMARY KEY, name VARCHAR(32))'
+  end
+
+  def teardown
+    @db2_connection.close if @db2_connection
+    connection.execute 'DROP TABLE final_samples'
+  end
+
+  def test_multi_row_insert_returns_all_ids
+    ids = db2_connection.execute_insert_id(
+      %q{INSERT INTO final_samples (name) VALUES ('first'), ('second')}, 'id')
+    assert_equal 2, ids.size
+    assert_equal ids, connection.select_values('SELECT id FROM final_samples ORDER BY id')
+  end
+
+  def test_insert_with_delimited_primary_key
+    connection.execute 'CREATE TABLE "Final Samples" ' <<
+      '("Sample Id" INTEGER NOT NULL GENERATED ALWAYS AS IDENTITY PRIMARY KEY, name VARCHAR(32))'
+    ids = db2_connection.execute_insert_id(
+      %q{INSERT INTO "Final Samples" (name) VALUES ('first'), ('second')}, 'Sample Id')
+    assert_equal ids, connection.select_values('SELECT "Sample Id" FROM "Final Samples" ORDER BY "Sample Id"')
+  ensure
+    connection.execute 'DROP TABLE "Final Samples"'
+  end
+
+  def test_fetch_size_defaults_from_property
+    assert_equal 25, db2_connection.prepare_statement('SELECT 1 FROM SYSIBM.SYSDUMMY1').getFetchSize
+  end
+
+  private
+
+  def connection
+    ActiveRecord::Base.connection
+  end
+
+  # the plain JDBC adapter's connection is not a DB2 one
+  def db2_connection
+    @db2_connection ||= ActiveRecord::ConnectionAdapters::DB2JdbcConnection.new(DB2_CONFIG, connection)
+  end
+
+end
@@ -0,0 +1,39 @@
+require 'db/h2'
+
+class H2EmbeddedTest < Test::Unit::TestCase
+
+  def setup
+    connection.create_table(:template_samples, force: true) { |t| t.string :name }
+    connection.execute "INSERT INTO template_samples (name) VALUES ('seed')"
+  end
+
+  def teardown
+    connection.drop_table(:template_samples, if_exists: true)
+  end
+
+  def test_clone_database
+    config = connection.clone_database('mem:clone_test')
+    begin
+      with_connection_removed do
+        with_connection(config) do |clone|
+          assert_equal [ 'seed' ], clone.select_values('SELECT name FROM template_samples')
+          clone.execute "INSERT INTO template_samples (name) VALUES ('clone')"
+        end
+        # engine stays open (embedded) among connections
+        with_connection(config) do |clone|
+          assert_equal 2, clone.select_value('SELECT COUNT(*) FROM template_samples')
+        end
+      end
+      assert_equal 1, connection.select_value('SELECT COUNT(*) FROM template_samples')
+    ensure
+      assert connection.drop_database_clone('mem:clone_test')
+    end
+  end
+
+  private
+
+  def connection
+    ActiveRecord::Base.connection
+  end
+
+end
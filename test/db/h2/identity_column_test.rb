@@ -31,5 +31,20 @@ class H2IdentityColumnTest < Test::Unit::TestCase
   def test_auto_increment
     assert_equal 1, Persona.all[0].id, "H2 auto increment initially should start at ID 1, not 0"
   end
+
+  def test_create_assigns_generated_id
+    persona = Persona.create!(:firstname => "Jane", :lastname => "Doe")
+    assert_kind_of Integer, persona.id
+    assert_equal persona, Persona.find_by(:firstname => "Jane")
+  end
+
+  def test_execute_insert_id
+    connection = ActiveRecord::Base.connection.raw_connection
+    id = connection.execute_insert_id("INSERT INTO personas (firstname) VALUES ('Joe')", 'id')
+    assert_equal Persona.maximum(:id), id
+
+    ids = connection.execute_insert_id("INSERT INTO personas (firstname) VALUES ('A'), ('B')", nil)
+    assert_equal [ id + 1, id + 2 ], ids
+  end
 end
 
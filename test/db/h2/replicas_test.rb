@@ -0,0 +1,113 @@
+require 'db/h2'
+
+class H2ReplicasTest < Test::Unit::TestCase
+
+  def setup
+    connection.create_table(:replica_samples, force: true) { |t| t.string :name }
+  end
+
+  def teardown
+    connection.drop_table(:replica_samples, if_exists: true)
+  end
+
+  def test_reads_routed_to_replica
+    config = current_connection_config
+    url = connection.raw_connection.jdbc_connection.getMetaData.getURL
+    with_connection_removed do
+      with_connection(config.merge(replicas: [ { url: url } ], replica_stickiness: 60)) do |conn|
+        raw_connection = conn.raw_connection
+        conn.execute "INSERT INTO replica_samples (name) VALUES ('primary')"
+        # a write just happened (sticky) - reads stay on the primary
+        assert_equal 1, conn.select_value('SELECT COUNT(*) FROM replica_samples')
+        assert_equal 0, raw_connection.replica_stats[:reads]
+        assert_true raw_connection.replica_stats[:sticky]
+      end
+      with_connection(config.merge(replicas: [ { url: url } ], replica_stickiness: 0)) do |conn|
+        raw_connection = conn.raw_connection
+        assert_equal [ 'primary' ], conn.select_values('SELECT name FROM replica_samples')
+        assert_equal 1, raw_connection.replica_stats[:reads]
+
+        conn.transaction do
+          conn.select_values('SELECT name FROM replica_samples')
+          conn.execute "DELETE FROM replica_samples"
+        end
+        assert_equal 1, raw_connection.replica_stats[:reads]
+      end
+    end
+  end
+
+  def test_only_writes_stick_to_primary
+    config = current_connection_config
+    url = connection.raw_connection.jdbc_connection.getMetaData.getURL
+    with_connection_removed do
+      with_connection(config.merge(replicas: [ { url: url } ], replica_stickiness: 60)) do |conn|
+        raw_connection = conn.raw_connection
+        conn.tables
+        conn.columns('replica_samples')
+        assert_false raw_connection.replica_stats[:sticky]
+
+        conn.select_values('SELECT name FROM replica_samples')
+        assert_equal 1, raw_connection.replica_stats[:reads]
+        # locking reads need the primary
+        conn.select_values('SELECT name FROM replica_samples FOR UPDATE')
+        assert_equal 1, raw_connection.replica_stats[:reads]
+        assert_false raw_connection.replica_stats[:sticky]
+
+        conn.execute "UPDATE replica_samples SET name = 'primary'"
+        assert_true raw_connection.replica_stats[:sticky]
+      end
+    end
+  end
+
+  def test_read_only_transaction_does_not_stick_to_primary
+    config = current_connection_config
+    url = connection.raw_connection.jdbc_connection.getMetaData.getURL
+    with_connection_removed do
+      with_connection(config.merge(replicas: [ { url: url } ], replica_stickiness: 60)) do |conn|
+        raw_connection = conn.raw_connection
+        conn.transaction do
+          conn.select_values('SELECT name FROM replica_samples')
+        end
+        assert_false raw_connection.replica_stats[:sticky]
+
+        # a (column) name matching a non-read word does not make a query a write
+        conn.select_values('SELECT name AS changes FROM replica_samples')
+        assert_false raw_connection.replica_stats[:sticky]
+      end
+    end
+  end
+
+  def test_commit_restarts_stickiness_after_a_long_transaction
+    config = current_connection_config
+    url = connection.raw_connection.jdbc_connection.getMetaData.getURL
+    with_connection_removed do
+      with_connection(config.merge(replicas: [ { url: url } ], replica_stickiness: 1)) do |conn|
+        raw_connection = conn.raw_connection
+        conn.transaction do
+          conn.execute "INSERT INTO replica_samples (name) VALUES ('primary')"
+          sleep 1.5 # longer than the stickiness
+          assert_false raw_connection.replica_stats[:sticky]
+        end
+        assert_true raw_connection.replica_stats[:sticky]
+        assert_equal [ 'primary' ], conn.select_values('SELECT name FROM replica_samples')
+        assert_equal 0, raw_connection.replica_stats[:reads]
+
+        # a rolled back write is not marked again
+        sleep 1.5
+        conn.transaction do
+          conn.execute "DELETE FROM replica_samples"
+          sleep 1.5
+          raise ActiveRecord::Rollback
+        end
+        assert_false raw_connection.replica_stats[:sticky]
+      end
+    end
+  end
+
+  private
+
+  def connection
+    ActiveRecord::Base.connection
+  end
+
+end
@@ -0,0 +1,60 @@
+require 'db/h2'
+
+class H2SchemaSnapshotTest < Test::Unit::TestCase
+
+  def setup
+    connection.create_table(:snapshot_authors, force: true) { |t| t.string :name }
+    connection.create_table(:snapshot_books, force: true) do |t|
+      t.string :title
+      t.references :snapshot_author, index: true
+    end
+    connection.add_foreign_key :snapshot_books, :snapshot_authors
+  end
+
+  def teardown
+    connection.drop_table(:snapshot_books, if_exists: true)
+    connection.drop_table(:snapshot_authors, if_exists: true)
+  end
+
+  def test_schema_snapshot
+    snapshot = connection.schema_snapshot(%w( snapshot_authors snapshot_books missing_table ))
+    assert_equal %w( snapshot_authors snapshot_books ), snapshot.keys.sort
+
+    books = snapshot['snapshot_books']
+    assert_equal connection.columns('snapshot_books').map(&:name), books['columns'].map(&:name)
+    assert_equal connection.indexes('snapshot_books').map(&:columns), books['indexes'].map(&:columns)
+    assert_equal [ 'snapshot_authors' ], books['foreign_keys'].map(&:to_table)
+
+    assert_equal [], snapshot['snapshot_authors']['foreign_keys']
+    assert_equal [ 'id' ], snapshot['snapshot_authors']['primary_keys']
+  end
+
+  def test_warm_schema_cache
+    connection.schema_cache.clear!
+    raw_connection = connection.raw_connection
+    introspected = []
+    %w( columns_internal indexes primary_keys foreign_keys ).each do |name|
+      raw_connection.singleton_class.send(:define_method, name) { |*args| introspected << name; super(*args) }
+    end
+
+    assert_equal 2, connection.warm_schema_cache(%w( snapshot_authors snapshot_books ))
+    assert_equal [], introspected
+
+    assert_equal connection.columns('snapshot_books').map(&:name),
+                 connection.schema_cache.columns('snapshot_books').map(&:name)
+    assert_equal [ [ 'snapshot_author_id' ] ], connection.schema_cache.indexes('snapshot_books').map(&:columns)
+    assert_equal 'id', connection.schema_cache.primary_keys('snapshot_authors')
+  ensure
+    %w( columns_internal indexes primary_keys foreign_keys ).each do |name|
+      raw_connection.singleton_class.send(:remove_method, name) rescue nil
+    end
+    connection.schema_cache.clear!
+  end
+
+  private
+
+  def connection
+    ActiveRecord::Base.connection
+  end
+
+end
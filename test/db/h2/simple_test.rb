@@ -13,6 +13,56 @@ class H2SimpleTest < Test::Unit::TestCase
     assert_kind_of Arel::Visitors::HSQLDB, visitor
   end
 
+  test 'raises mapped errors by sql state' do
+    connection.create_table(:uniques, force: true) { |t| t.string :code, null: false }
+    connection.add_index :uniques, :code, unique: true
+    connection.execute "INSERT INTO uniques (code) VALUES ('one')"
+
+    sql = "INSERT INTO uniques (code) VALUES ('one')"
+    error = assert_raise(ActiveRecord::RecordNotUnique) { disable_logger { connection.execute sql } }
+    assert_equal sql, error.sql
+    assert_kind_of Java::JavaSql::SQLException, error.cause
+    assert_equal '23505', error.cause.getSQLState
+
+    assert_raise(ActiveRecord::NotNullViolation) do
+      disable_logger { connection.execute "INSERT INTO uniques (code) VALUES (NULL)" }
+    end
+  ensure
+    connection.drop_table(:uniques, if_exists: true)
+  end
+
+  test 'timed out statements are not re-tried' do
+    raw_connection = connection.raw_connection
+    original_config = raw_connection.config.dup
+    raw_connection.config[:connection_retries] = 3
+    raw_connection.refresh_config
+
+    started = Time.now
+    assert_raise(ActiveRecord::QueryCanceled) do
+      disable_logger do
+        connection.with_query_timeout(1) { connection.execute 'SELECT SUM(X) FROM SYSTEM_RANGE(1, 10000000000)' }
+      end
+    end
+    assert Time.now - started < 3, 'timed out statement got re-tried'
+  ensure
+    raw_connection.config.replace original_config
+    raw_connection.refresh_config
+  end
+
+  test 'connect circuit breaker fails fast' do
+    config = { adapter: 'h2', driver: 'org.h2.Driver', url: 'jdbc:h2:tcp://127.0.0.1:1/unreachable',
+               circuit_breaker_threshold: 1, circuit_breaker_backoff: 60 }
+    connection_class = ActiveRecord::ConnectionAdapters::H2JdbcConnection
+
+    error = assert_raise(ActiveRecord::JDBCError) { connection_class.new(config, connection) }
+    assert_no_match(/circuit breaker/, error.message)
+    error = assert_raise(ActiveRecord::JDBCError) { connection_class.new(config, connection) }
+    assert_match(/circuit breaker open/, error.message)
+
+    # opt-in, disabled by default
+    assert_nil connection.raw_connection.circuit_breaker_stats
+  end
+
 end
 
 class H2HasManyThroughTest < Test::Unit::TestCase
@@ -8,6 +8,23 @@ class H2TransactionTest < Test::Unit::TestCase
     assert_true ActiveRecord::Base.connection.supports_savepoints?
   end
 
+  def test_lazy_begin_on_dead_connection_raises
+    raw_connection = ActiveRecord::Base.connection.raw_connection
+    original_config = raw_connection.config.dup
+    raw_connection.config[:lazy_begin] = true
+    raw_connection.refresh_config
+
+    raw_connection.jdbc_connection.close # connection dropped
+    raw_connection.begin
+    # the statement must not get re-tried (on a new connection) outside of the transaction
+    assert_raise(ActiveRecord::JDBCError) { raw_connection.execute 'SELECT 1' }
+    assert_nil raw_connection.rollback # begin never happened
+  ensure
+    raw_connection.config.replace original_config
+    raw_connection.refresh_config
+    ActiveRecord::Base.connection.reconnect!
+  end
+
   # @override whole table gets locked!
   def test_transaction_isolation_read_committed
     unless ActiveRecord::Base.connection.supports_transaction_isolation?
@@ -0,0 +1,60 @@
+require 'test_helper'
+require 'db/mssql'
+
+class MSSQLBulkCopyTest < Test::Unit::TestCase
+
+  def self.startup
+    super
+    ActiveRecord::Base.connection.
+      create_table :bulk_samples, :force => true do |t|
+        t.string :name
+        t.integer :num
+        t.datetime :created_at
+      end
+  end
+
+  def self.shutdown
+    ActiveRecord::Base.connection.drop_table :bulk_samples
+    super
+  end
+
+  def setup
+    connection.execute 'DELETE FROM bulk_samples'
+  end
+
+  test 'copies rows from an array' do
+    time = Time.utc(2020, 2, 2, 12, 30, 45)
+    count = raw_connection.bulk_copy 'bulk_samples', [ 'name', 'num', 'created_at' ],
+      [ [ 'one', 1, time ], [ 'two', 2, nil ], [ nil, 3, nil ] ]
+    assert_equal 3, count
+
+    rows = connection.select_rows 'SELECT name, num FROM bulk_samples ORDER BY num'
+    assert_equal [ [ 'one', 1 ], [ 'two', 2 ], [ nil, 3 ] ], rows
+  end
+
+  test 'pulls rows lazily with options' do
+    pulled = 0
+    rows = (1..2500).lazy.map { |i| pulled += 1; [ "row #{i}", i ] }
+    count = raw_connection.bulk_copy 'bulk_samples', [ 'name', 'num' ], rows, batch_size: 1000, table_lock: true
+    assert_equal 2500, count
+    assert_equal 2500, pulled
+    assert_equal 2500, connection.select_value('SELECT COUNT(*) FROM bulk_samples')
+  end
+
+  test 'fails on an unknown option' do
+    assert_raise(ArgumentError) do
+      raw_connection.bulk_copy 'bulk_samples', [ 'num' ], [ [ 1 ] ], unknown_option: true
+    end
+  end
+
+  private
+
+  def connection
+    ActiveRecord::Base.connection
+  end
+
+  def raw_connection
+    connection.raw_connection
+  end
+
+end
@@ -39,6 +39,22 @@ class MSSQLExecProcTest < Test::Unit::TestCase
     assert_equal 'VIEW', table_info['TABLE_TYPE'], "Table Info: #{table_info.inspect}"
   end
 
+  test 'streams each result of a batch' do
+    events = []
+    count = connection.raw_connection.each_result(
+      "INSERT INTO sample_table (sample_column) VALUES (GETDATE()); SELECT 1 AS one; SELECT 2 AS two UNION ALL SELECT 3"
+    ) { |type, value| events << [ type, value ] }
+
+    assert_equal 3, count
+    assert_equal [ :update_count, 1 ], events[0]
+    assert_equal [ :result_set, [ 'one' ] ], events[1]
+    assert_equal [ :row, { 'one' => 1 } ], events[2]
+    assert_equal [ :result_set, [ 'two' ] ], events[3]
+    assert_equal [ [ :row, { 'two' => 2 } ], [ :row, { 'two' => 3 } ] ], events[4..5]
+  ensure
+    connection.execute 'DELETE FROM sample_table'
+  end
+
   private
 
   def connection
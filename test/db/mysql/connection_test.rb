@@ -31,6 +31,78 @@ class MySQLConnectionTest < Test::Unit::TestCase
     end
   end
 
+  def test_string_values_keep_encoding
+    rows = select_rows("SELECT CAST('\u017elu\u0165ou\u010dk\u00fd k\u016f\u0148' AS CHAR(20)) AS str, 'plain' AS ascii")
+    str, ascii = rows.first
+    assert_equal "\u017elu\u0165ou\u010dk\u00fd k\u016f\u0148", str
+    assert_equal Encoding::UTF_8, str.encoding
+    assert_equal 'plain', ascii
+  end
+
+  def test_string_values_follow_set_names
+    connection = ActiveRecord::Base.connection
+    connection.execute 'SET NAMES latin1'
+    str = select_rows("SELECT CONVERT(_utf8mb4 0xC3BC USING utf8mb4) AS str").first.first
+    assert_equal "\u00fc", str
+    assert_equal Encoding::UTF_8, str.encoding
+  ensure
+    connection.execute 'SET NAMES utf8mb4'
+  end
+
+  def test_load_data_local_infile
+    run_without_connection do |orig_connection|
+      properties = { 'allowLoadLocalInfile' => true, 'allowLocalInfile' => true }
+      ActiveRecord::Base.establish_connection(orig_connection.deep_merge(properties: properties))
+      connection = ActiveRecord::Base.connection
+      connection.create_table(:load_data_samples, force: true) { |t| t.string :name; t.integer :num }
+      begin
+        rows = [ [ 'one', 1 ], [ "tab\tnew\nline\\", nil ] ]
+        assert_equal 2, connection.load_data_local_infile(:load_data_samples, rows.each, columns: [ :name, :num ])
+        assert_equal 1, connection.load_data_local_infile(:load_data_samples, StringIO.new("three\t3\n"), columns: [ :name, :num ])
+        assert_equal 1, connection.load_data_local_infile(:load_data_samples, [ [ :four, 4 ] ], columns: [ :name, :num ])
+
+        loaded = select_rows('SELECT name, num FROM load_data_samples ORDER BY id')
+        assert_equal [ [ 'one', 1 ], [ "tab\tnew\nline\\", nil ], [ 'three', 3 ], [ 'four', 4 ] ], loaded
+      ensure
+        connection.drop_table(:load_data_samples, if_exists: true)
+      end
+    end
+  end
+
+  def test_stream_each
+    connection = ActiveRecord::Base.connection.raw_connection
+    sql = 'SELECT 1 AS num, "one" AS str UNION ALL SELECT 2, "two" UNION ALL SELECT 3, "three"'
+
+    rows = []
+    count = connection.stream_each(sql) { |row| rows << row }
+    assert_equal 3, count
+    assert_equal [ 1, 2, 3 ], rows.map { |row| row['num'] }
+    assert_equal 'three', rows.last['str']
+    assert ! connection.streaming?
+  end
+
+  def test_stream_each_disallows_other_statements_while_streaming
+    connection = ActiveRecord::Base.connection.raw_connection
+
+    assert_raise ActiveRecord::JDBCError do
+      connection.stream_each('SELECT 1 UNION ALL SELECT 2') { connection.execute('SELECT 3') }
+    end
+    assert ! connection.streaming?
+    assert_equal [ [ 3 ] ], select_rows('SELECT 3')
+  end
+
+  def test_stream_each_disallows_transaction_control_while_streaming
+    connection = ActiveRecord::Base.connection.raw_connection
+
+    assert_raise ActiveRecord::JDBCError do
+      connection.stream_each('SELECT 1 UNION ALL SELECT 2') { connection.rollback }
+    end
+    assert_raise ActiveRecord::JDBCError do
+      connection.stream_each('SELECT 1 UNION ALL SELECT 2') { connection.tables }
+    end
+    assert ! connection.streaming?
+  end
+
   protected
 
   def select_rows(sql)
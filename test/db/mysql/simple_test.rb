@@ -368,6 +368,35 @@ class MySQLSimpleTest < Test::Unit::TestCase
     end
   end
 
+  test 'raises mapped errors by vendor code' do
+    connection.create_table(:uniques, force: true) { |t| t.string :code, null: false; t.integer :num, null: false }
+    connection.add_index :uniques, :code, unique: true
+    connection.execute "INSERT INTO uniques (code, num) VALUES ('one', 1)"
+
+    sql = "INSERT INTO uniques (code, num) VALUES ('one', 1)"
+    error = assert_raise(ActiveRecord::RecordNotUnique) { disable_logger { connection.execute sql } }
+    assert_equal sql, error.sql
+    assert_kind_of Java::JavaSql::SQLException, error.cause
+    assert_equal 1062, error.cause.getErrorCode
+
+    assert_raise(ActiveRecord::NotNullViolation) do # ER_NOT_NULL_VIOLATION
+      disable_logger { connection.execute "INSERT INTO uniques (code, num) VALUES (NULL, 2)" }
+    end
+    assert_raise(ActiveRecord::NotNullViolation) do # ER_NO_DEFAULT_FOR_FIELD (strict mode)
+      disable_logger { connection.execute "INSERT INTO uniques (code) VALUES ('two')" }
+    end
+  ensure
+    connection.drop_table(:uniques, if_exists: true)
+  end
+
+  test 'raises statement timeout on max execution time' do
+    omit 'MAX_EXECUTION_TIME not supported' if mariadb_server?
+    sql = 'SELECT /*+ MAX_EXECUTION_TIME(1) */ COUNT(*) ' +
+          'FROM information_schema.columns a, information_schema.columns b, information_schema.columns c'
+    error = assert_raise(ActiveRecord::StatementTimeout) { disable_logger { connection.execute sql } }
+    assert_equal 3024, error.cause.getErrorCode
+  end
+
   def test_jdbc_error
     begin
       disable_logger { connection.exec_query('SELECT * FROM bogus') }
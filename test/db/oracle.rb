@@ -0,0 +1,16 @@
+require 'test_helper'
+
+ORACLE_CONFIG = {
+  adapter:  'oracle',
+  database: ENV['ORACLE_DATABASE'] || 'XE',
+  username: ENV['ORACLE_USER'] || 'blog',
+  password: ENV['ORACLE_PASS'] || 'blog',
+  host:     ENV['ORACLE_HOST'] || 'localhost'
+}
+ORACLE_CONFIG[:port] = ENV['ORACLE_PORT'] if ENV['ORACLE_PORT']
+
+unless ( ps = ENV['PREPARED_STATEMENTS'] || ENV['PS'] ).nil?
+  ORACLE_CONFIG[:prepared_statements] = ps
+end
+
+ActiveRecord::Base.establish_connection(ORACLE_CONFIG)
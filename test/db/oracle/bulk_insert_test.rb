@@ -0,0 +1,37 @@
+require 'db/oracle'
+
+class OracleBulkInsertTest < Test::Unit::TestCase
+
+  def setup
+    connection.create_table(:bulk_samples, force: true) do |t|
+      t.string :name; t.boolean :flag; t.datetime :stamp
+    end
+  end
+
+  def teardown
+    connection.drop_table(:bulk_samples, if_exists: true)
+  end
+
+  def test_bulk_insert
+    stamp = Time.utc(2020, 1, 2, 3, 4, 5)
+    rows = [ [ 'one', true, stamp ], [ 'two', false, nil ] ]
+    ids = connection.bulk_insert(:bulk_samples, [ :name, :flag, :stamp ], rows)
+    assert_equal 2, ids.size
+
+    inserted = connection.select_rows('SELECT id, name, flag, stamp FROM bulk_samples ORDER BY id')
+    assert_equal ids, inserted.map { |row| row[0].to_i }
+    assert_equal [ 'one', 'two' ], inserted.map { |row| row[1] }
+    assert_equal [ 1, 0 ], inserted.map { |row| row[2].to_i } # booleans emulated as NUMBER(1)
+    assert_nil inserted.last[3]
+  end
+
+  def test_bulk_insert_is_prevented_when_preventing_writes
+    connection.while_preventing_writes do
+      assert_raise(ActiveRecord::ReadOnlyError) do
+        connection.bulk_insert(:bulk_samples, [ :name ], [ [ 'one' ] ])
+      end
+    end
+    assert_equal 0, connection.select_value('SELECT COUNT(*) FROM bulk_samples').to_i
+  end
+
+end
@@ -0,0 +1,49 @@
+require 'db/oracle'
+
+class OracleDescribeCacheTest < Test::Unit::TestCase
+
+  def setup
+    connection.create_table(:describe_samples, force: true) { |t| t.string :name }
+  end
+
+  def teardown
+    connection.drop_table(:describe_samples, if_exists: true)
+  end
+
+  def test_describe_results_are_cached
+    raw_connection = connection.raw_connection
+    assert_equal 'DESCRIBE_SAMPLES', raw_connection.describe('describe_samples', nil)[1]
+
+    drop_table_bypassing_cache
+    assert_equal 'DESCRIBE_SAMPLES', raw_connection.describe('describe_samples', nil)[1]
+  ensure
+    connection.clear_describe_cache
+  end
+
+  def test_clear_describe_cache_normalizes_table_name
+    raw_connection = connection.raw_connection
+    owner = raw_connection.describe('describe_samples', nil)[0]
+    assert_not_nil raw_connection.describe("#{owner.downcase}.describe_samples", nil)
+
+    drop_table_bypassing_cache
+    raw_connection.clear_describe_cache('DESCRIBE_Samples')
+    assert_nil raw_connection.describe('describe_samples', nil)
+    assert_nil raw_connection.describe("#{owner.downcase}.describe_samples", nil)
+  end
+
+  def test_clear_describe_cache_with_owner_qualified_name
+    raw_connection = connection.raw_connection
+    owner = raw_connection.describe('describe_samples', nil)[0]
+
+    drop_table_bypassing_cache
+    raw_connection.clear_describe_cache("#{owner}.describe_samples")
+    assert_nil raw_connection.describe('describe_samples', nil)
+  end
+
+  private
+
+  def drop_table_bypassing_cache # AR's drop_table would invalidate
+    connection.execute 'DROP TABLE describe_samples'
+  end
+
+end
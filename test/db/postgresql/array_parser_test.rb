@@ -0,0 +1,83 @@
+require 'test_helper'
+require 'arjdbc/postgresql'
+require 'arjdbc/postgresql/base/array_parser'
+
+# checks the (Java) ArJdbc::PostgreSQL.parse_pg_array against the Ruby parser
+class PostgreSQLArrayParserTest < Test::Unit::TestCase
+
+  class RubyParser
+    include ActiveRecord::ConnectionAdapters::PostgreSQL::ArrayParser
+  end
+
+  LITERALS = [
+    '{}', '{a}', '{a,b}', '{a,,b}', '{"a"b,c}', '[1:2]={a,b}', '{{1,2},{3,4}}', '{{},a}',
+    '{NULL,"NULL",null}', '{"",""}', '{a\\,b}', '{"a\\"b","c\\\\d"}', '{"{x}","a,b"}',
+    '{"Ω ünïcode",日本}', '{{{1}},{{2}}}', '{a}{b}'
+  ]
+
+  test 'parses the same as the ruby parser' do
+    LITERALS.each do |literal|
+      assert_equal ruby_parse(literal), java_parse(literal), "parsing: #{literal}"
+    end
+  end
+
+  test 'parses random arrays the same as the ruby parser' do
+    random = Random.new(42)
+    500.times do
+      array = random_array(random)
+      literal = encode(array)
+      parsed = java_parse(literal)
+      assert_equal ruby_parse(literal), parsed, "parsing: #{literal}"
+      assert_equal array, parsed, "parsing: #{literal}"
+    end
+  end
+
+  test 'keeps the encoding' do
+    parsed = java_parse('{"Ω",b}')
+    assert_equal [ Encoding::UTF_8 ] * 2, parsed.map(&:encoding)
+  end
+
+  test 'decoder uses the java parser' do
+    decoder = ActiveRecord::ConnectionAdapters::PostgreSQL::OID::Array::PG::TextDecoder::Array.new(name: nil, delimiter: ',')
+    assert_equal [ '1', nil, [ 'x y' ] ], decoder.decode('{1,NULL,{"x y"}}')
+  end
+
+  test 'raises on malformed literal' do
+    assert_raise(ArgumentError) { java_parse('{a,b') }
+  end
+
+  private
+
+  ITEM_CHARS = [ 'a', 'Z', '1', ' ', ',', '"', '\\', '{', '}', 'é', '日', 'NULL', '' ]
+
+  def random_array(random, depth = 0)
+    Array.new(random.rand(0..5)) do
+      case random.rand
+      when 0...0.1 then nil
+      when 0.1...0.2 then depth < 3 ? random_array(random, depth + 1) : 'x'
+      else Array.new(random.rand(0..6)) { ITEM_CHARS.sample(random: random) }.join
+      end
+    end
+  end
+
+  def encode(array)
+    items = array.map do |item|
+      case item
+      when nil then 'NULL'
+      when Array then encode(item)
+      when /\A[a-z0-9]+\z/i then item == 'NULL' ? '"NULL"' : item
+      else '"' + item.gsub(/["\\]/) { |c| "\\#{c}" } + '"'
+      end
+    end
+    "{#{items.join(',')}}"
+  end
+
+  def java_parse(literal)
+    ArJdbc::PostgreSQL.parse_pg_array(literal)
+  end
+
+  def ruby_parse(literal)
+    RubyParser.new.parse_pg_array(literal)
+  end
+
+end
@@ -1,4 +1,5 @@
 require 'db/postgres'
+require 'timeout'
 
 class PostgreSQLConnectionTest < Test::Unit::TestCase
 
@@ -10,6 +11,22 @@ class PostgreSQLConnectionTest < Test::Unit::TestCase
     end
   end
 
+  def test_with_query_timeout
+    assert_raise ActiveRecord::StatementInvalid do
+      connection.with_query_timeout(1) { connection.execute 'SELECT pg_sleep(10)' }
+    end
+    assert_equal 1, connection.select_value('SELECT 1')
+  end
+
+  def test_statement_cancelled_on_thread_interrupt
+    started = Time.now
+    assert_raise Timeout::Error, ActiveRecord::StatementInvalid do
+      Timeout.timeout(1) { connection.execute 'SELECT pg_sleep(10)' }
+    end
+    assert Time.now - started < 5, 'query was not cancelled'
+    assert_equal 1, connection.select_value('SELECT 1')
+  end
+
   context 'with table' do
 
     def setup
@@ -37,6 +54,29 @@ class PostgreSQLConnectionTest < Test::Unit::TestCase
       assert_equal [ [ 5150, 'some data' ] ], result
     end
 
+    def test_result_each_and_aref
+      connection.execute("INSERT INTO ex (number, data) VALUES (1, 'one'), (2, 'two')")
+      result = connection.raw_connection.execute('SELECT number, data FROM ex ORDER BY number')
+
+      rows = []; result.each { |row| rows << row }
+      assert_equal [ { 'number' => 1, 'data' => 'one' }, { 'number' => 2, 'data' => 'two' } ], rows
+      assert_equal({ 'number' => 2, 'data' => 'two' }, result[1])
+      assert_not_same result[0], result[0]
+    end
+
+    def test_stream_each
+      connection.execute("INSERT INTO ex (number, data) VALUES (1, 'one'), (2, 'two'), (3, 'three')")
+
+      rows = []
+      count = connection.raw_connection.stream_each('SELECT number, data FROM ex ORDER BY number') { |row| rows << row }
+      assert_equal 3, count
+      assert_equal [ 1, 2, 3 ], rows.map { |row| row['number'] }
+
+      rows = []
+      connection.raw_connection.stream_each('SELECT data FROM ex WHERE number > ?', [ 1 ]) { |row| rows << row['data'] }
+      assert_equal [ 'two', 'three' ], rows.sort
+    end
+
   end
 
   private
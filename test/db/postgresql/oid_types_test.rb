@@ -60,6 +60,20 @@ class PostgresqlOOIDTypesTest < Test::Unit::TestCase
     assert_kind_of ActiveRecord::Type::String, SomeSample.type_for_attribute('ltr')
   end
 
+  def test_result_types_are_resolved_after_type_map_reload
+    @connection.execute "INSERT INTO some_samples (str, int, created_at, updated_at) VALUES ('a', 42, now(), now())"
+
+    types = @connection.exec_query('SELECT int, str FROM some_samples').column_types
+    assert_kind_of ActiveModel::Type::Integer, types['int']
+
+    @connection.reload_type_map
+
+    result = @connection.exec_query('SELECT int, str FROM some_samples')
+    assert_kind_of ActiveModel::Type::Integer, result.column_types['int']
+    assert_not_same types['int'], result.column_types['int'] # cache got cleared
+    assert_equal [ 42 ], result.cast_values.map(&:first)
+  end
+
   def test_array_types_can_be_specified
     string_array = OID::Array.new(ActiveModel::Type::String.new(limit: 50))
     int_array = OID::Array.new(ActiveModel::Type::Integer.new)
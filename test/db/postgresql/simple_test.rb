@@ -83,6 +83,40 @@ class PostgresSimpleTest < Test::Unit::TestCase
     assert_not_nil connection.encoding
   end
 
+  test 'raises mapped errors by sql state' do
+    connection.create_table(:uniques, force: true) do |t|
+      t.string :code, limit: 3, null: false
+      t.integer :parent_id
+    end
+    connection.add_index :uniques, :code, unique: true
+    connection.add_foreign_key :uniques, :uniques, column: :parent_id
+    connection.execute "INSERT INTO uniques (code) VALUES ('one')"
+
+    sql = "INSERT INTO uniques (code) VALUES ('one')"
+    error = assert_raise(ActiveRecord::RecordNotUnique) { disable_logger { connection.execute sql } }
+    assert_equal sql, error.sql
+    assert_kind_of Java::JavaSql::SQLException, error.cause
+    assert_equal '23505', error.cause.getSQLState
+
+    assert_raise(ActiveRecord::NotNullViolation) do
+      disable_logger { connection.execute "INSERT INTO uniques (code) VALUES (NULL)" }
+    end
+    assert_raise(ActiveRecord::InvalidForeignKey) do
+      disable_logger { connection.execute "INSERT INTO uniques (code, parent_id) VALUES ('two', 42)" }
+    end
+    assert_raise(ActiveRecord::ValueTooLong) do
+      disable_logger { connection.execute "INSERT INTO uniques (code) VALUES ('four')" }
+    end
+    assert_raise(ActiveRecord::RangeError) do
+      disable_logger { connection.execute "SELECT 2147483647::integer + 1" }
+    end
+    assert_raise(ActiveRecord::QueryCanceled) do
+      disable_logger { connection.with_query_timeout(1) { connection.execute 'SELECT pg_sleep(10)' } }
+    end
+  ensure
+    connection.drop_table(:uniques, if_exists: true)
+  end
+
   test 'find_by_sql WITH statement' do
     user = User.create! :login => 'ferko'
     Entry.create! :title => 'aaa', :user_id => user.id
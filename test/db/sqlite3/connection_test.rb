@@ -0,0 +1,58 @@
+require 'test_helper'
+require 'db/sqlite3'
+require 'tmpdir'
+
+class SQLite3ConnectionTest < Test::Unit::TestCase
+
+  def setup
+    connection.create_table(:batch_samples, force: true) { |t| t.string :name; t.integer :num }
+  end
+
+  def teardown
+    connection.drop_table(:batch_samples, if_exists: true)
+    FileUtils.remove_entry(@tmpdir) if @tmpdir
+  end
+
+  def test_execute_prepared_batch
+    sql = 'INSERT INTO batch_samples (name, num) VALUES (?, ?)'
+    counts = connection.execute_prepared_batch(sql, [ [ 'one', 1 ], [ 'two', 2 ], [ nil, 3 ] ])
+    assert_equal [ 1, 1, 1 ], counts
+
+    assert_equal [ [ 'one', 1 ], [ 'two', 2 ], [ nil, 3 ] ], connection.select_rows('SELECT name, num FROM batch_samples ORDER BY num')
+
+    counts = connection.execute_prepared_batch('UPDATE batch_samples SET name = ? WHERE num > ?', [ [ 'x', 1 ], [ 'y', 5 ] ])
+    assert_equal [ 2, 0 ], counts
+  end
+
+  def test_execute_prepared_batch_rolls_back_on_failure
+    connection.add_index :batch_samples, :num, unique: true
+    sql = 'INSERT INTO batch_samples (name, num) VALUES (?, ?)'
+    assert_raise(ActiveRecord::RecordNotUnique) do
+      connection.execute_prepared_batch(sql, [ [ 'one', 1 ], [ 'dup', 1 ] ])
+    end
+    assert_equal 0, connection.select_value('SELECT COUNT(*) FROM batch_samples')
+  end
+
+  def test_backup_and_restore
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection(config.merge(database: ':memory:'))
+      connection = ActiveRecord::Base.connection
+      connection.create_table(:snapshot_samples) { |t| t.string :name }
+      connection.execute "INSERT INTO snapshot_samples (name) VALUES ('seed')"
+
+      @tmpdir = Dir.mktmpdir
+      snapshot = File.join(@tmpdir, 'snapshot-test.sqlite3')
+      connection.backup_database(snapshot)
+
+      connection.execute "INSERT INTO snapshot_samples (name) VALUES ('other')"
+      assert_equal 2, connection.select_value('SELECT COUNT(*) FROM snapshot_samples')
+      connection.add_column :snapshot_samples, :extra, :integer
+      assert connection.schema_cache.columns_hash('snapshot_samples').key?('extra')
+
+      connection.restore_database(snapshot)
+      assert_equal [ 'seed' ], connection.select_values('SELECT name FROM snapshot_samples')
+      assert ! connection.schema_cache.columns_hash('snapshot_samples').key?('extra')
+    end
+  end
+
+end
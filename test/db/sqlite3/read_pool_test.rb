@@ -0,0 +1,67 @@
+require 'test_helper'
+require 'db/sqlite3'
+
+class SQLite3ReadPoolTest < Test::Unit::TestCase
+
+  def test_selects_see_committed_writes
+    with_read_pool do |connection|
+      connection.execute "INSERT INTO read_pool_samples (name) VALUES ('first')"
+      assert_equal [ 'first' ], connection.select_values('SELECT name FROM read_pool_samples')
+
+      connection.transaction do
+        connection.execute "INSERT INTO read_pool_samples (name) VALUES ('second')"
+        # un-committed writes are only visible on the writer
+        assert_equal 2, connection.select_value('SELECT COUNT(*) FROM read_pool_samples')
+      end
+      assert_equal 2, connection.select_value('SELECT COUNT(*) FROM read_pool_samples')
+    end
+  end
+
+  def test_reads_are_routed_to_readers
+    with_read_pool do |connection|
+      assert_borrowed(1, connection) { connection.select_value('SELECT COUNT(*) FROM read_pool_samples') }
+      assert_borrowed(1, connection) do
+        connection.select_value('WITH names AS (SELECT name FROM read_pool_samples) SELECT COUNT(*) FROM names')
+      end
+      assert_borrowed(0, connection) { connection.execute "INSERT INTO read_pool_samples (name) VALUES ('first')" }
+      assert_borrowed(0, connection) { connection.select_value('SELECT last_insert_rowid()') }
+    end
+  end
+
+  def test_reads_within_transaction_stay_on_writer
+    with_read_pool do |connection|
+      connection.transaction do
+        connection.execute "INSERT INTO read_pool_samples (name) VALUES ('first')"
+        assert_borrowed(0, connection) do
+          assert_equal 1, connection.select_value('SELECT COUNT(*) FROM read_pool_samples')
+        end
+        connection.transaction(requires_new: true) do
+          assert_borrowed(0, connection) { connection.select_value('SELECT COUNT(*) FROM read_pool_samples') }
+        end
+      end
+    end
+  end
+
+  private
+
+  def with_read_pool
+    with_connection_removed do |config|
+      ActiveRecord::Base.establish_connection(config.merge(read_pool: 2))
+      connection = ActiveRecord::Base.connection
+      connection.create_table(:read_pool_samples, force: true) { |t| t.string :name }
+      begin
+        assert_not_nil connection.raw_connection.read_pool_stats
+        yield connection
+      ensure
+        connection.drop_table(:read_pool_samples, if_exists: true)
+      end
+    end
+  end
+
+  def assert_borrowed(count, connection)
+    before = connection.raw_connection.read_pool_stats[:borrowed]
+    yield
+    assert_equal count, connection.raw_connection.read_pool_stats[:borrowed] - before
+  end
+
+end
@@ -158,6 +158,18 @@ class JdbcConnectionTest < Test::Unit::TestCase
     end
   end
 
+  test 'connection factory is shared for the same database' do
+    connection_class = ActiveRecord::ConnectionAdapters::JdbcConnection
+    factory = ActiveRecord::Base.connection.raw_connection.connection_factory
+    reused = connection_class.connection_factory_stats[:reused]
+    with_connection_removed do
+      # a pool setting does not make a different database
+      ActiveRecord::Base.establish_connection JDBC_CONFIG.merge(pool: 2)
+      assert_equal factory, ActiveRecord::Base.connection.raw_connection.connection_factory
+    end
+    assert connection_class.connection_factory_stats[:reused] > reused
+  end
+
   context 'configuration' do
 
     test 'connection url' do
@@ -177,6 +189,20 @@ class JdbcConnectionTest < Test::Unit::TestCase
       end
     end
 
+    test 'settings are re-read on refresh_config' do
+      connection = ActiveRecord::Base.connection.raw_connection # JdbcConnection
+      original_config = connection.config.dup
+      begin
+        connection.config[:jdbc_fetch_size] = 42
+        assert_not_equal 42, connection.prepare_statement('SELECT 1').getFetchSize
+        connection.refresh_config
+        assert_equal 42, connection.prepare_statement('SELECT 1').getFetchSize
+      ensure
+        connection.config.replace original_config
+        connection.refresh_config
+      end
+    end
+
     test 'connection fails without :driver and :url' do
       with_connection_removed do
         ActiveRecord::Base.establish_connection :adapter => 'jdbc'
@@ -178,10 +178,7 @@ class Test::Unit::TestCase
   private # RubyJdbcConnection (internal) helpers :
 
   def self.clear_cached_jdbc_connection_factory
-    unless Java::arjdbc.jdbc.RubyJdbcConnection.respond_to?(:defaultConfig=)
-      Java::arjdbc.jdbc.RubyJdbcConnection.field_writer :defaultConfig
-    end
-    Java::arjdbc.jdbc.RubyJdbcConnection.defaultConfig = nil # won't use defaultFactory
+    ActiveRecord::ConnectionAdapters::JdbcConnection.clear_connection_factories
   end
 
   def get_jdbc_connection_factory
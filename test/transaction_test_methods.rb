@@ -182,6 +182,34 @@ module TransactionTestMethods
     assert_equal %w(one three), all.map(&:title)
   end
 
+  def test_auto_commit_state_tracked
+    raw_connection = ActiveRecord::Base.connection.raw_connection
+    Entry.transaction { Entry.create! :title => 'tracked' } # auto-commit state known
+    avoided = raw_connection.auto_commit_stats[:avoided]
+    Entry.transaction { Entry.create! :title => 'tracked' }
+    assert raw_connection.auto_commit_stats[:avoided] > avoided
+    assert_true raw_connection.jdbc_connection.getAutoCommit
+    assert_equal 2, Entry.where(:title => 'tracked').count
+  end if defined? JRUBY_VERSION
+
+  def test_empty_transaction_does_not_touch_connection
+    raw_connection = ActiveRecord::Base.connection.raw_connection
+    original_config = raw_connection.config.dup
+    raw_connection.config[:lazy_begin] = true
+    raw_connection.refresh_config
+
+    Entry.transaction { Entry.create! :title => 'lazy' }
+    stats = raw_connection.auto_commit_stats
+    raw_connection.begin
+    raw_connection.rollback
+    raw_connection.begin
+    raw_connection.commit
+    assert_equal stats, raw_connection.auto_commit_stats
+  ensure
+    raw_connection.config.replace original_config
+    raw_connection.refresh_config
+  end if defined? JRUBY_VERSION
+
   def test_using_named_savepoints
     omit 'savepoints not supported' unless @supports_savepoints
 